@@ -0,0 +1,166 @@
+package com.agenda.agendaespacios.benchmark;
+
+import com.agenda.agendaespacios.model.Agenda;
+import com.agenda.agendaespacios.model.AgendaViewModel;
+import com.agenda.agendaespacios.model.ConfigData;
+import com.agenda.agendaespacios.model.Reservation;
+import com.agenda.agendaespacios.service.AgendaProcessor;
+import com.agenda.agendaespacios.service.DataLoader;
+import com.agenda.agendaespacios.tools.WorkloadGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures each stage of the /procesar pipeline: parse, process, view model and render
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PipelineBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int reservations;
+
+    @Param({"2", "50", "500"})
+    private int rooms;
+
+    private DataLoader dataLoader;
+    private AgendaProcessor agendaProcessor;
+    private SpringTemplateEngine templateEngine;
+
+    private MockMultipartFile reservationsFile;
+    private ConfigData config;
+    private List<Reservation> parsedReservations;
+    private Agenda agenda;
+    private AgendaViewModel viewModel;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataLoader = new DataLoader();
+        agendaProcessor = new AgendaProcessor();
+        templateEngine = createTemplateEngine();
+
+        WorkloadGenerator generator = new WorkloadGenerator(new WorkloadGenerator.Settings()
+            .setSeed(42L)
+            .setReservations(reservations)
+            .setRooms(rooms)
+            .setMaxTimeRanges(2));
+        StringWriter configContent = new StringWriter();
+        StringWriter reservationsContent = new StringWriter(reservations * 48);
+        generator.writeConfig(configContent);
+        generator.writeReservations(reservationsContent);
+
+        reservationsFile = new MockMultipartFile("peticionesFile", "peticiones.txt", "text/plain",
+            reservationsContent.toString().getBytes(StandardCharsets.UTF_8));
+        config = dataLoader.loadConfig(new MockMultipartFile("configFile", "config.txt", "text/plain",
+            configContent.toString().getBytes(StandardCharsets.UTF_8)));
+        parsedReservations = dataLoader.loadReservations(reservationsFile);
+        agenda = agendaProcessor.createAgenda(config, parsedReservations);
+        viewModel = new AgendaViewModel(config, agenda);
+    }
+
+    @Benchmark
+    public List<Reservation> loadReservations() throws IOException {
+        return dataLoader.loadReservations(reservationsFile);
+    }
+
+    @Benchmark
+    public Agenda createAgenda() {
+        return agendaProcessor.createAgenda(config, parsedReservations);
+    }
+
+    @Benchmark
+    public AgendaViewModel buildViewModel() {
+        return new AgendaViewModel(config, agenda);
+    }
+
+    @Benchmark
+    public long renderAgenda() {
+        CountingWriter writer = new CountingWriter();
+        templateEngine.process("agenda", createContext(viewModel), writer);
+        return writer.count;
+    }
+
+    @Benchmark
+    public long fullPipeline() throws IOException {
+        List<Reservation> loaded = dataLoader.loadReservations(reservationsFile);
+        Agenda built = agendaProcessor.createAgenda(config, loaded);
+        CountingWriter writer = new CountingWriter();
+        templateEngine.process("agenda", createContext(new AgendaViewModel(config, built)), writer);
+        return writer.count;
+    }
+
+    private Context createContext(AgendaViewModel model) {
+        Context context = new Context(Locale.ENGLISH);
+        context.setVariable("agendaViewModel", model);
+        context.setVariable("locale", config.getLocale());
+        context.setVariable("targetLanguage", config.getTargetLanguage());
+        return context;
+    }
+
+    private static SpringTemplateEngine createTemplateEngine() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("messages");
+        messageSource.setDefaultEncoding("UTF-8");
+        messageSource.setFallbackToSystemLocale(false);
+
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        engine.setTemplateEngineMessageSource(messageSource);
+        return engine;
+    }
+
+    /**
+     * Discards rendered output, only keeping its length so the work cannot be optimized away
+     */
+    private static final class CountingWriter extends Writer {
+        private long count;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
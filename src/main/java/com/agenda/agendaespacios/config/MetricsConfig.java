@@ -0,0 +1,57 @@
+package com.agenda.agendaespacios.config;
+
+import com.agenda.agendaespacios.service.AgendaMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final AgendaMetrics metrics;
+
+    public MetricsConfig(AgendaMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RenderTimingInterceptor(metrics)).addPathPatterns("/procesar");
+    }
+
+    /**
+     * Times template rendering: postHandle runs right before the view is rendered and
+     * afterCompletion right after it
+     */
+    static class RenderTimingInterceptor implements HandlerInterceptor {
+
+        private static final String RENDER_START = RenderTimingInterceptor.class.getName() + ".start";
+
+        private final AgendaMetrics metrics;
+
+        RenderTimingInterceptor(AgendaMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                               ModelAndView modelAndView) {
+            if (modelAndView != null && "agenda".equals(modelAndView.getViewName())) {
+                request.setAttribute(RENDER_START, System.nanoTime());
+            }
+        }
+
+        @Override
+        public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                    Exception ex) {
+            Object start = request.getAttribute(RENDER_START);
+            if (start instanceof Long) {
+                metrics.recordStage(AgendaMetrics.STAGE_RENDER, System.nanoTime() - (Long) start);
+            }
+        }
+    }
+}
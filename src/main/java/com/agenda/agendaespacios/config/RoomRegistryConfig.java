@@ -0,0 +1,64 @@
+package com.agenda.agendaespacios.config;
+
+import com.agenda.agendaespacios.model.OpeningHours;
+import com.agenda.agendaespacios.model.RoomRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the room registry from agenda.rooms.* properties:
+ * <pre>
+ *   agenda.rooms.templates.&lt;template&gt;=LMCJV 8-21; S 9-14
+ *   agenda.rooms.buildings.&lt;building&gt;=&lt;template&gt;:Room1,Room2
+ * </pre>
+ * Without any building configured the built-in Sala1/Sala2 registry is used.
+ */
+@Configuration
+public class RoomRegistryConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomRegistryConfig.class);
+
+    @Bean
+    public RoomRegistry roomRegistry(Environment environment) {
+        Binder binder = Binder.get(environment);
+        Map<String, String> templates = binder.bind("agenda.rooms.templates",
+            Bindable.mapOf(String.class, String.class)).orElse(Map.of());
+        Map<String, String> buildings = binder.bind("agenda.rooms.buildings",
+            Bindable.mapOf(String.class, String.class)).orElse(Map.of());
+        if (buildings.isEmpty()) {
+            logger.info("No buildings configured, using the default Sala1/Sala2 rooms");
+            return RoomRegistry.defaults();
+        }
+
+        RoomRegistry registry = new RoomRegistry();
+        for (Map.Entry<String, String> template : templates.entrySet()) {
+            registry.addTemplate(OpeningHours.parse(template.getKey(), template.getValue()));
+        }
+        for (Map.Entry<String, String> building : buildings.entrySet()) {
+            String[] parts = building.getValue().split(":", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid rooms for building " + building.getKey() + ": '" +
+                                                   building.getValue() + "'. Expected template:Room1,Room2");
+            }
+            List<String> rooms = new ArrayList<>();
+            for (String room : parts[1].split(",")) {
+                if (!room.isBlank()) {
+                    rooms.add(room.trim());
+                }
+            }
+            registry.addBuilding(building.getKey(), parts[0].trim(), rooms);
+        }
+        logger.info("Registered {} rooms in {} buildings with {} opening-hours templates",
+                   registry.getRooms().size(), buildings.size(), templates.size());
+        return registry;
+    }
+}
@@ -0,0 +1,242 @@
+package com.agenda.agendaespacios.controller;
+
+import com.agenda.agendaespacios.model.Agenda;
+import com.agenda.agendaespacios.model.AgendaRequest;
+import com.agenda.agendaespacios.model.AgendaSummary;
+import com.agenda.agendaespacios.model.ConfigData;
+import com.agenda.agendaespacios.model.FreeSlotPage;
+import com.agenda.agendaespacios.model.FreeSlotQuery;
+import com.agenda.agendaespacios.model.OccupancyGrid;
+import com.agenda.agendaespacios.model.OccupancyRun;
+import com.agenda.agendaespacios.model.Reservation;
+import com.agenda.agendaespacios.service.AgendaJob;
+import com.agenda.agendaespacios.service.AgendaJobService;
+import com.agenda.agendaespacios.service.AgendaProcessor;
+import com.agenda.agendaespacios.service.AgendaStore;
+import com.agenda.agendaespacios.service.DataLoader;
+import com.agenda.agendaespacios.service.FreeSlotSearch;
+import com.agenda.agendaespacios.service.ReservationDatabase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * JSON counterpart of /procesar for machine clients: same inputs, same
+ * AgendaProcessor, but returns run-length encoded occupancy instead of HTML
+ */
+@RestController
+@RequestMapping("/api/agenda")
+public class AgendaApiController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgendaApiController.class);
+
+    private final DataLoader dataLoader;
+    private final AgendaProcessor agendaProcessor;
+    private final AgendaJobService jobService;
+    private final AgendaStore agendaStore;
+    private final ReservationDatabase reservationDatabase;
+    private final FreeSlotSearch freeSlotSearch;
+
+    @Autowired
+    public AgendaApiController(DataLoader dataLoader, AgendaProcessor agendaProcessor, AgendaJobService jobService,
+                               AgendaStore agendaStore, ReservationDatabase reservationDatabase,
+                               FreeSlotSearch freeSlotSearch) {
+        this.dataLoader = dataLoader;
+        this.agendaProcessor = agendaProcessor;
+        this.jobService = jobService;
+        this.agendaStore = agendaStore;
+        this.reservationDatabase = reservationDatabase;
+        this.freeSlotSearch = freeSlotSearch;
+    }
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public AgendaSummary computeFromFiles(@RequestParam("configFile") MultipartFile configFile,
+                                          @RequestParam("peticionesFile") MultipartFile reservationsFile) throws IOException {
+        ConfigData config = dataLoader.loadConfig(configFile);
+        List<Reservation> reservations = dataLoader.loadReservations(reservationsFile);
+        logger.info("API request: {} reservations for {}", reservations.size(), config.getPeriodDisplay());
+        return compute(config, reservations);
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public AgendaSummary computeFromJson(@RequestBody AgendaRequest request) {
+        ConfigData config = request.toConfig();
+        List<Reservation> reservations = request.toReservations();
+        logger.info("API request: {} reservations for {}", reservations.size(), config.getPeriodDisplay());
+        return compute(config, reservations);
+    }
+
+    /**
+     * Queues the upload as a background job and answers 202 with the job, whose Location polls its progress
+     */
+    @PostMapping(path = "/jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<AgendaJob> submitJob(@RequestParam("configFile") MultipartFile configFile,
+                                               @RequestParam("peticionesFile") MultipartFile reservationsFile) throws IOException {
+        // The multipart files are gone once the request ends, so the job gets copies
+        AgendaJob job = jobService.submit(configFile.getBytes(), reservationsFile.getBytes());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+            .header(HttpHeaders.LOCATION, "/api/agenda/jobs/" + job.getId())
+            .body(job);
+    }
+
+    @GetMapping("/jobs/{id}")
+    public AgendaJob getJob(@PathVariable String id) {
+        return findJob(id);
+    }
+
+    @GetMapping("/jobs/{id}/result")
+    public AgendaSummary getJobResult(@PathVariable String id) {
+        AgendaJob job = findFinishedJob(id);
+        return AgendaSummary.from(job.getConfig(), job.getAgenda());
+    }
+
+    /**
+     * Ranked, paged free windows in a finished job's agenda; parameters are bound from the
+     * query string (duration, days, startHour, endHour, from, to, rooms, page, size)
+     */
+    @GetMapping("/jobs/{id}/free-slots")
+    public FreeSlotPage getFreeSlots(@PathVariable String id, FreeSlotQuery query) {
+        return freeSlotSearch.search(findFinishedJob(id).getAgenda(), query);
+    }
+
+    /**
+     * Booked hours of a room on one day, read from the on-disk agenda store
+     */
+    @GetMapping("/store/{room}/{date}")
+    public List<OccupancyRun> getStoredDay(@PathVariable String room, @PathVariable String date) {
+        LocalDate day = LocalDate.parse(date);
+        requireStored(room, day);
+        return agendaStore.getRuns(room, day);
+    }
+
+    /**
+     * Holder of one hour from the on-disk agenda store; activity is null when the hour is free
+     */
+    @GetMapping("/store/{room}/{date}/{hour}")
+    public Map<String, Object> getStoredHour(@PathVariable String room, @PathVariable String date,
+                                             @PathVariable int hour) {
+        LocalDate day = LocalDate.parse(date);
+        if (hour < 0 || hour >= OccupancyGrid.HOURS_PER_DAY) {
+            throw new IllegalArgumentException("Hour must be between 0 and 23: " + hour);
+        }
+        requireStored(room, day);
+        Map<String, Object> slot = new LinkedHashMap<>();
+        slot.put("room", room);
+        slot.put("date", day.toString());
+        slot.put("hour", hour);
+        slot.put("activity", agendaStore.getActivity(room, day, hour));
+        return slot;
+    }
+
+    /**
+     * Holder of one hour according to the reservation database; activity is null when the hour is free
+     */
+    @GetMapping("/db/holder")
+    public Map<String, Object> getHolder(@RequestParam String room, @RequestParam String date, @RequestParam int hour) {
+        requireDatabase();
+        LocalDate day = LocalDate.parse(date);
+        Map<String, Object> slot = new LinkedHashMap<>();
+        slot.put("room", room);
+        slot.put("date", day.toString());
+        slot.put("hour", hour);
+        slot.put("activity", reservationDatabase.findHolder(room, day, hour));
+        return slot;
+    }
+
+    /**
+     * Free hours of a room between two dates (both included), optionally limited to [startHour, endHour)
+     */
+    @GetMapping("/db/free")
+    public List<ReservationDatabase.FreeSlot> getFreeSlots(@RequestParam String room,
+                                                           @RequestParam String from, @RequestParam String to,
+                                                           @RequestParam(defaultValue = "0") int startHour,
+                                                           @RequestParam(defaultValue = "24") int endHour) {
+        requireDatabase();
+        LocalDate first = LocalDate.parse(from);
+        LocalDate last = LocalDate.parse(to);
+        if (last.toEpochDay() - first.toEpochDay() > 366) {
+            throw new IllegalArgumentException("Free slot queries cover at most one year");
+        }
+        return reservationDatabase.findFreeSlots(room, first, last, startHour, endHour);
+    }
+
+    private void requireDatabase() {
+        if (!reservationDatabase.isEnabled()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Reservation database is disabled");
+        }
+    }
+
+    private void requireStored(String room, LocalDate date) {
+        if (!agendaStore.contains(room, date)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No stored agenda for " + room + " in " + YearMonth.from(date));
+        }
+    }
+
+    private AgendaJob findJob(String id) {
+        AgendaJob job = jobService.get(id);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown or expired job: " + id);
+        }
+        return job;
+    }
+
+    private AgendaJob findFinishedJob(String id) {
+        AgendaJob job = findJob(id);
+        if (job.getStatus() == AgendaJob.Status.FAILED) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Job failed: " + job.getError());
+        }
+        if (job.getStatus() != AgendaJob.Status.SUCCEEDED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Job is still " + job.getStatus());
+        }
+        return job;
+    }
+
+    private AgendaSummary compute(ConfigData config, List<Reservation> reservations) {
+        Agenda agenda = agendaProcessor.createAgenda(config, reservations);
+        agendaStore.saveInBackground(agenda);
+        reservationDatabase.ingestInBackground(config, reservations, agenda);
+        return AgendaSummary.from(config, agenda);
+    }
+
+    @ExceptionHandler({IllegalArgumentException.class, DateTimeException.class})
+    public ResponseEntity<Map<String, String>> handleBadRequest(Exception ex) {
+        logger.warn("Rejected agenda API request: {}", ex.getMessage());
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(ex.getMessage())));
+    }
+
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<Map<String, String>> handleStatus(ResponseStatusException ex) {
+        return ResponseEntity.status(ex.getStatusCode()).body(Map.of("error", String.valueOf(ex.getReason())));
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<String, String>> handleQueueFull(RejectedExecutionException ex) {
+        logger.warn("Agenda job queue is full ({} waiting)", jobService.getQueueDepth());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "30")
+            .body(Map.of("error", "Too many agenda jobs queued, retry later"));
+    }
+}
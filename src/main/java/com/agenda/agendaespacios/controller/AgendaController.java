@@ -4,12 +4,21 @@ import com.agenda.agendaespacios.model.Agenda;
 import com.agenda.agendaespacios.model.AgendaViewModel;
 import com.agenda.agendaespacios.model.ConfigData;
 import com.agenda.agendaespacios.model.Reservation;
+import com.agenda.agendaespacios.service.AgendaMetrics;
 import com.agenda.agendaespacios.service.AgendaProcessor;
+import com.agenda.agendaespacios.service.AgendaResultCache;
+import com.agenda.agendaespacios.service.AgendaStore;
 import com.agenda.agendaespacios.service.DataLoader;
+import com.agenda.agendaespacios.service.ReservationDatabase;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -23,9 +32,13 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 @Controller
 public class AgendaController {
@@ -35,12 +48,36 @@ public class AgendaController {
     private final DataLoader dataLoader;
     private final AgendaProcessor agendaProcessor;
     private final LocaleResolver localeResolver;
+    private final AgendaMetrics metrics;
+    private final AgendaResultCache resultCache;
+    private final AgendaStore agendaStore;
+    private final ReservationDatabase reservationDatabase;
+    private final int streamingMinRooms;
+    private final AsyncTaskExecutor taskExecutor;
+    private final boolean virtualThreads;
     
+    /**
+     * taskExecutor is Spring Boot's applicationTaskExecutor. Uploads only hand their parse to
+     * it when it runs on virtual threads (spring.threads.virtual.enabled on Java 21); otherwise
+     * it is a small platform pool shared by every upload and the parse runs inline.
+     */
     @Autowired
-    public AgendaController(DataLoader dataLoader, AgendaProcessor agendaProcessor, LocaleResolver localeResolver) {
+    public AgendaController(DataLoader dataLoader, AgendaProcessor agendaProcessor, LocaleResolver localeResolver,
+                            AgendaMetrics metrics, AgendaResultCache resultCache, AgendaStore agendaStore,
+                            ReservationDatabase reservationDatabase,
+                            @Value("${agenda.render.streaming-min-rooms:20}") int streamingMinRooms,
+                            @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor,
+                            Environment environment) {
         this.dataLoader = dataLoader;
         this.agendaProcessor = agendaProcessor;
         this.localeResolver = localeResolver;
+        this.metrics = metrics;
+        this.resultCache = resultCache;
+        this.agendaStore = agendaStore;
+        this.reservationDatabase = reservationDatabase;
+        this.streamingMinRooms = streamingMinRooms;
+        this.taskExecutor = taskExecutor;
+        this.virtualThreads = Threading.VIRTUAL.isActive(environment);
     }
     
     @GetMapping("/")
@@ -72,53 +109,74 @@ public class AgendaController {
                 return "redirect:/upload";
             }
             
+            // Same files as a recent upload: reuse the agenda built for them
+            String cacheKey = resultCache.keyFor(configFile, reservationsFile);
+            AgendaResultCache.CachedResult cached = resultCache.get(cacheKey);
+            if (cached != null) {
+                logger.info("Serving cached agenda for uploaded files");
+                applyLocale(cached.getConfig(), request, response);
+                addAgendaAttributes(model, cached.getConfig(), cached.getViewModel(), response);
+                return "agenda";
+            }
+            
+            // With virtual threads, parse reservations on the task executor while the config is read here
+            Future<List<Reservation>> pendingReservations = virtualThreads
+                ? taskExecutor.submit(() -> dataLoader.loadReservations(reservationsFile)) : null;
+            
             // Load configuration data
             try {
                 ConfigData configData = dataLoader.loadConfig(configFile);
-                logger.info("Loaded config: year={}, month={}, languages={}_{}",
-                           configData.getYear(), configData.getMonth(), 
+                logger.info("Loaded config: period={}, languages={}_{}",
+                           configData.getPeriodDisplay(), 
                            configData.getSourceLanguage(), configData.getTargetLanguage());
                 
                 // Set locale based on target language
-                try {
-                    Locale targetLocale = configData.getLocale();
-                    localeResolver.setLocale(request, response, targetLocale);
-                    LocaleContextHolder.setLocale(targetLocale);
-                    logger.info("Set locale to: {}", targetLocale);
-                    
-                    // Debug message resources
-                    logger.debug("Locale set to: {}", LocaleContextHolder.getLocale());
-                    
-                } catch (Exception e) {
-                    // If there's an issue setting the locale, log it but continue
-                    logger.warn("Error setting locale from target language: {}", e.getMessage());
-                }
+                applyLocale(configData, request, response);
                 
                 // Load reservations
                 List<Reservation> reservations;
+                boolean cacheable = true;
                 try {
-                    reservations = dataLoader.loadReservations(reservationsFile);
+                    reservations = pendingReservations != null
+                        ? pendingReservations.get() : dataLoader.loadReservations(reservationsFile);
                     logger.info("Loaded {} reservation requests", reservations.size());
-                } catch (Exception e) {
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                } catch (ExecutionException e) {
+                    logger.error("Error loading reservations", e.getCause());
+                    reservations = Collections.emptyList();
+                    cacheable = false;
+                } catch (IOException | RuntimeException e) {
                     logger.error("Error loading reservations", e);
                     reservations = Collections.emptyList();
+                    cacheable = false;
                 }
                 
                 // Process agenda
                 Agenda agenda = agendaProcessor.createAgenda(configData, reservations);
                 
-                // Create view model
-                AgendaViewModel viewModel = new AgendaViewModel(configData, agenda);
+                // Create view model; large agendas build their weeks while rendering
+                long viewModelStart = System.nanoTime();
+                boolean streaming = streamingMinRooms > 0 && agenda.getRoomSchedules().size() >= streamingMinRooms;
+                AgendaViewModel viewModel = new AgendaViewModel(configData, agenda, streaming);
+                metrics.recordStage(AgendaMetrics.STAGE_VIEW_MODEL, System.nanoTime() - viewModelStart);
                 logger.info("Created agenda with {} room schedules and {} conflicts", 
                            viewModel.getRoomSchedules().size(), viewModel.getConflicts().size());
                 
+                if (cacheable) {
+                    resultCache.put(cacheKey, configData, viewModel);
+                    agendaStore.saveInBackground(agenda);
+                    reservationDatabase.ingestInBackground(configData, reservations, agenda);
+                }
+                
                 // Add data to model
-                model.addAttribute("agendaViewModel", viewModel);
-                model.addAttribute("locale", configData.getLocale());
-                model.addAttribute("targetLanguage", configData.getTargetLanguage());
+                addAgendaAttributes(model, configData, viewModel, response);
                 
                 return "agenda";
             } catch (Exception e) {
+                // The parse reads the multipart, which goes away with the request: let it finish first
+                awaitQuietly(pendingReservations);
                 logger.error("Error processing configuration file", e);
                 redirectAttributes.addFlashAttribute("error", 
                     "Error processing configuration file: " + e.getMessage());
@@ -133,6 +191,54 @@ public class AgendaController {
         }
     }
     
+    private static void awaitQuietly(Future<?> task) {
+        if (task == null) {
+            return;
+        }
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.debug("Reservation parse of a failed upload also failed: {}", e.getCause().getMessage());
+        }
+    }
+    
+    private void applyLocale(ConfigData configData, HttpServletRequest request, HttpServletResponse response) {
+        try {
+            Locale targetLocale = configData.getLocale();
+            localeResolver.setLocale(request, response, targetLocale);
+            LocaleContextHolder.setLocale(targetLocale);
+            logger.info("Set locale to: {}", targetLocale);
+            
+            // Debug message resources
+            logger.debug("Locale set to: {}", LocaleContextHolder.getLocale());
+            
+        } catch (Exception e) {
+            // If there's an issue setting the locale, log it but continue
+            logger.warn("Error setting locale from target language: {}", e.getMessage());
+        }
+    }
+    
+    private void addAgendaAttributes(Model model, ConfigData configData, AgendaViewModel viewModel,
+                                     HttpServletResponse response) {
+        model.addAttribute("agendaViewModel", viewModel);
+        model.addAttribute("locale", configData.getLocale());
+        model.addAttribute("targetLanguage", configData.getTargetLanguage());
+        if (viewModel.isLazy()) {
+            // Thymeleaf writes straight to the response, so flushing between rooms sends each one as it is done
+            model.addAttribute("streamedRooms", viewModel.streamRoomSchedules(() -> flush(response)));
+        }
+    }
+    
+    private static void flush(HttpServletResponse response) {
+        try {
+            response.flushBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
     /**
      * Global exception handler for template processing errors
      */
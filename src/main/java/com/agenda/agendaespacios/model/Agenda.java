@@ -5,6 +5,9 @@ import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.format.TextStyle;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,83 +15,264 @@ public class Agenda {
     private static final Logger logger = LoggerFactory.getLogger(Agenda.class);
     
     private ConfigData config;
+    private RoomRegistry roomRegistry;
     private Map<String, RoomSchedule> roomSchedules;
-    private List<String> conflicts;
+    private ConflictList conflicts;
     
     // Default statuses
     private static final String FREE_STATUS = "free";
-    private static final String CLOSED_STATUS = "Closed";
     
     public Agenda(ConfigData config) {
+        this(config, RoomRegistry.defaults());
+    }
+    
+    public Agenda(ConfigData config, RoomRegistry roomRegistry) {
+        this(config, roomRegistry, new HashMap<>(), new ConflictList());
+    }
+    
+    /**
+     * Lets variants such as {@link ConcurrentAgenda} choose the room map and conflict list
+     */
+    Agenda(ConfigData config, RoomRegistry roomRegistry, Map<String, RoomSchedule> roomSchedules,
+           ConflictList conflicts) {
         this.config = config;
-        this.roomSchedules = new HashMap<>();
-        this.conflicts = new ArrayList<>();
+        this.roomRegistry = roomRegistry;
+        this.roomSchedules = roomSchedules;
+        this.conflicts = conflicts;
         
-        // Initialize default schedules for Sala1 and Sala2
-        initializeDefaultSchedules();
+        initializeRegisteredRooms();
     }
     
     /**
-     * Initialize default schedules for rooms with closed hours
+     * Creates the schedules of registered rooms up front so they show even without
+     * reservations. Their closed hours come from the shared templates, nothing is
+     * allocated per room until it is booked.
      */
-    private void initializeDefaultSchedules() {
-        YearMonth yearMonth = YearMonth.of(config.getYear(), config.getMonth());
+    private void initializeRegisteredRooms() {
+        for (String roomName : roomRegistry.getRooms()) {
+            roomSchedules.put(roomName, newRoomSchedule(roomName));
+        }
+    }
+    
+    RoomSchedule newRoomSchedule(String roomName) {
+        return new RoomSchedule(config.getStartPeriod(), config.getEndPeriod(), roomRegistry.getOpeningHours(roomName));
+    }
+    
+    public void addReservation(Reservation reservation) {
+        apply(reservation, false);
+    }
+    
+    /**
+     * Adds the reservations as addReservation would one after the other, building the
+     * schedules of different rooms concurrently on the pool. Rooms never conflict with each
+     * other, so each room's reservations are applied by one task in list order, which keeps
+     * first-come (and Closed-first, when Closed rules lead the list) inside every room.
+     * Conflicts are then added in list order, so the agenda ends up exactly as a sequential
+     * build would leave it.
+     *
+     * onError is called in list order for reservations that failed to apply; afterEach runs
+     * on the pool's threads once per reservation.
+     */
+    public void addReservations(List<Reservation> reservations, ForkJoinPool pool,
+                                BiConsumer<Reservation, RuntimeException> onError, Runnable afterEach) {
+        int count = reservations.size();
+        Object[] outcomes = new Object[count]; // booking -> merged conflicts, RuntimeException, or null
         
-        // Initialize Sala1 and Sala2 with default schedules
-        for (String roomName : Arrays.asList("Sala1", "Sala2")) {
-            RoomSchedule roomSchedule = new RoomSchedule(yearMonth);
-            
-            // Set default closed hours for all days of the week
-            for (int day = 1; day <= yearMonth.lengthOfMonth(); day++) {
-                LocalDate date = yearMonth.atDay(day);
-                Map<Integer, String> daySchedule = roomSchedule.getSchedule().get(date);
-                
-                // Set hours 0-7 as closed
-                for (int hour = 0; hour < 7; hour++) {
-                    daySchedule.put(hour, CLOSED_STATUS);
+        // Schedules are created up front: the room map itself is not shared with the tasks
+        Map<RoomSchedule, List<Integer>> rooms = new LinkedHashMap<>();
+        for (int index = 0; index < count; index++) {
+            Reservation reservation = reservations.get(index);
+            if (!reservation.isValid() || !inPeriod(reservation)) {
+                continue;
+            }
+            RoomSchedule roomSchedule = roomSchedules.computeIfAbsent(reservation.getRoomName(), this::newRoomSchedule);
+            rooms.computeIfAbsent(roomSchedule, room -> new ArrayList<>()).add(index);
+        }
+        
+        List<Map.Entry<RoomSchedule, List<Integer>>> tasks = new ArrayList<>(rooms.entrySet());
+        try {
+            pool.submit(() -> tasks.parallelStream().forEach(task -> {
+                for (int index : task.getValue()) {
+                    try {
+                        List<Conflict> details = new ArrayList<>();
+                        RoomSchedule.Booking booking = task.getKey().append(reservations.get(index), details);
+                        if (!details.isEmpty()) {
+                            // Merged here, listed in the agenda once every room is done
+                            outcomes[index] = Map.entry(booking, mergeConflicts(booking.reservation, details));
+                        }
+                    } catch (RuntimeException e) {
+                        outcomes[index] = e;
+                    }
+                    if (afterEach != null) {
+                        afterEach.run();
+                    }
                 }
-                
-                // Set hours 21-24 as closed
-                for (int hour = 21; hour < 24; hour++) {
-                    daySchedule.put(hour, CLOSED_STATUS);
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building room schedules", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error building room schedules: " + e.getCause().getMessage(), e.getCause());
+        }
+        
+        for (int index = 0; index < count; index++) {
+            Reservation reservation = reservations.get(index);
+            if (!reservation.isValid()) {
+                apply(reservation, false);
+                if (afterEach != null) {
+                    afterEach.run();
                 }
+            } else if (outcomes[index] instanceof Map.Entry<?, ?> outcome) {
+                @SuppressWarnings("unchecked")
+                List<Conflict> merged = (List<Conflict>) outcome.getValue();
+                ((RoomSchedule.Booking) outcome.getKey()).conflicts = conflicts.addSegment(merged);
+                logger.warn("Conflicts detected for reservation {} in room {}", 
+                           reservation.getActivityName(), reservation.getRoomName());
+            } else if (outcomes[index] instanceof RuntimeException e) {
+                onError.accept(reservation, e);
+            } else if (afterEach != null && !inPeriod(reservation)) {
+                afterEach.run();
             }
-            
-            roomSchedules.put(roomName, roomSchedule);
         }
     }
     
-    public void addReservation(Reservation reservation) {
+    boolean inPeriod(Reservation reservation) {
+        return !reservation.getEndDate().isBefore(config.getStartPeriod().atDay(1)) &&
+               !reservation.getStartDate().isAfter(config.getEndPeriod().atEndOfMonth());
+    }
+    
+    /**
+     * Adds one reservation to an agenda that is already built, giving it the priority a
+     * full rebuild would: a regular reservation goes after everything already booked, a
+     * Closed one ahead of every regular reservation of its room. In the Closed case only
+     * the days it covers are replayed.
+     *
+     * Returns the conflict messages the reservation caused.
+     */
+    public List<String> applyReservation(Reservation reservation) {
+        List<String> messages = new ArrayList<>();
+        for (Conflict conflict : apply(reservation, true)) {
+            messages.add(conflict.getMessage());
+        }
+        return Collections.unmodifiableList(messages);
+    }
+    
+    /**
+     * Removes a reservation previously added to the agenda (the same object, or one with the
+     * same activity, room, dates, days and hours) and replays the days it covered, so
+     * reservations it was shadowing take the freed hours and conflicts naming it are updated.
+     *
+     * Returns false if no such reservation was booked.
+     */
+    public boolean retractReservation(Reservation reservation) {
+        RoomSchedule roomSchedule = roomSchedules.get(reservation.getRoomName());
+        RoomSchedule.Booking booking = roomSchedule != null ? roomSchedule.findBooking(reservation) : null;
+        if (booking == null) {
+            return false;
+        }
+        
+        SortedMap<YearMonth, Integer> days = roomSchedule.footprint(booking.reservation);
+        roomSchedule.removeBooking(booking);
+        conflicts.removeSegment(booking.conflicts);
+        refreshMessages(roomSchedule.replay(days));
+        return true;
+    }
+    
+    private List<Conflict> apply(Reservation reservation, boolean honorPriority) {
         if (!reservation.isValid()) {
-            addConflict("Invalid reservation format: " + reservation.getActivityName() + 
-                       (reservation.getErrorMessage() != null ? " - " + reservation.getErrorMessage() : ""));
+            String message = "Invalid reservation format: " + reservation.getActivityName() + 
+                       (reservation.getErrorMessage() != null ? " - " + reservation.getErrorMessage() : "");
+            addConflict(message);
             logger.warn("Invalid reservation: {}", reservation.getActivityName());
-            return;
+            return Collections.singletonList(Conflict.note(message));
         }
         
-        // Check if reservation is for the current month/year
-        YearMonth yearMonth = YearMonth.of(config.getYear(), config.getMonth());
-        
-        // If reservation's date range doesn't include the target month, skip it
-        if (reservation.getEndDate().isBefore(yearMonth.atDay(1)) || 
-            reservation.getStartDate().isAfter(yearMonth.atEndOfMonth())) {
-            return;
+        // If reservation's date range doesn't overlap the target period, skip it
+        if (!inPeriod(reservation)) {
+            return Collections.emptyList();
         }
         
         String roomName = reservation.getRoomName();
-        RoomSchedule roomSchedule = roomSchedules.computeIfAbsent(roomName, 
-                name -> new RoomSchedule(yearMonth));
+        RoomSchedule roomSchedule = roomSchedules.computeIfAbsent(roomName, this::newRoomSchedule);
+        
+        if (honorPriority && reservation.isClosed()) {
+            RoomSchedule.Booking booking = roomSchedule.insertBeforeRegular(reservation);
+            Map<RoomSchedule.Booking, List<Conflict>> replayed = roomSchedule.replay(roomSchedule.footprint(reservation));
+            refreshMessages(replayed);
+            return replayed.getOrDefault(booking, Collections.emptyList());
+        }
         
         // Try to add the reservation to the room schedule
-        List<String> conflictDetails = roomSchedule.addReservationWithDetails(reservation);
-        if (!conflictDetails.isEmpty()) {
-            for (String detail : conflictDetails) {
-                addConflict("Conflict in room " + roomName + " for activity " + 
-                           reservation.getActivityName() + ": " + detail);
+        List<Conflict> details = new ArrayList<>();
+        RoomSchedule.Booking booking = roomSchedule.append(reservation, details);
+        if (details.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Conflict> merged = mergeConflicts(reservation, details);
+        booking.conflicts = conflicts.addSegment(merged);
+        logger.warn("Conflicts detected for reservation {} in room {}", 
+                   reservation.getActivityName(), roomName);
+        return merged;
+    }
+    
+    /**
+     * Swaps the conflicts of replayed bookings in place where they changed. A booking that
+     * had none before gets its conflicts appended at the end of the list.
+     */
+    private void refreshMessages(Map<RoomSchedule.Booking, List<Conflict>> replayed) {
+        for (Map.Entry<RoomSchedule.Booking, List<Conflict>> entry : replayed.entrySet()) {
+            RoomSchedule.Booking booking = entry.getKey();
+            if (!conflicts.holds(booking.conflicts, entry.getValue())) {
+                booking.conflicts = conflicts.replaceSegment(booking.conflicts, entry.getValue());
+            }
+        }
+    }
+    
+    /**
+     * Collapses a reservation's per-day conflicts into one entry per run that hits the same
+     * hours and holder on consecutive occurrences, or on the same weekday a week apart,
+     * so a recurring rule clashing with another one yields a single conflict rather than
+     * one per week.
+     */
+    private static List<Conflict> mergeConflicts(Reservation reservation, List<Conflict> details) {
+        List<Conflict> merged = new ArrayList<>();
+        List<Integer> open = new ArrayList<>(); // runs that the next occurrence can still extend
+        int weekdays = reservation.getWeekdayMask();
+        for (Conflict detail : details) {
+            LocalDate date = detail.getFirstDate();
+            int extended = -1;
+            for (Iterator<Integer> it = open.iterator(); it.hasNext(); ) {
+                int index = it.next();
+                LocalDate last = merged.get(index).getLastDate();
+                LocalDate weekLater = last.plusDays(7);
+                if (weekLater.isBefore(date)) {
+                    it.remove();
+                } else if (extended < 0 && merged.get(index).sameSlot(detail)
+                           && (weekLater.equals(date) || nextOccurrence(last, weekdays).equals(date))) {
+                    extended = index;
+                }
+            }
+            if (extended >= 0) {
+                merged.set(extended, merged.get(extended).extendTo(date));
+            } else {
+                open.add(merged.size());
+                merged.add(detail);
             }
-            logger.warn("Conflicts detected for reservation {} in room {}", 
-                       reservation.getActivityName(), roomName);
         }
+        return merged;
+    }
+    
+    /**
+     * First date after the given one whose weekday is in the mask (bit 0 = Monday)
+     */
+    private static LocalDate nextOccurrence(LocalDate date, int weekdayMask) {
+        for (int i = 1; i < 7; i++) {
+            LocalDate next = date.plusDays(i);
+            if ((weekdayMask & (1 << (next.getDayOfWeek().getValue() - 1))) != 0) {
+                return next;
+            }
+        }
+        return date.plusDays(7);
     }
     
     private void addConflict(String message) {
@@ -99,106 +283,596 @@ public class Agenda {
         return roomSchedules;
     }
     
+    public RoomRegistry getRoomRegistry() {
+        return roomRegistry;
+    }
+    
+    /**
+     * Conflict messages, limited to the conflict limit; notes added here are kept after them
+     */
     public List<String> getConflicts() {
         return conflicts;
     }
     
+    /**
+     * The conflicts getConflicts shows, as structured records
+     */
+    public List<Conflict> getConflictRecords() {
+        return conflicts.records();
+    }
+    
+    /**
+     * Number of conflicts, including the ones over the limit
+     */
+    public int getConflictCount() {
+        return conflicts.getTotal();
+    }
+    
+    /**
+     * Number of conflicts left out of getConflicts by the limit
+     */
+    public int getConflictOverflow() {
+        return conflicts.getOverflow();
+    }
+    
+    /**
+     * Caps how many conflicts getConflicts lists; the rest are only counted
+     */
+    public void setConflictLimit(int limit) {
+        conflicts.setLimit(limit);
+    }
+    
     public static class RoomSchedule {
         private static final Logger logger = LoggerFactory.getLogger(RoomSchedule.class);
         
-        private YearMonth yearMonth;
-        private Map<LocalDate, Map<Integer, String>> schedule; // date -> hour -> activity
+        private YearMonth startMonth;
+        private YearMonth endMonth;
+        private Map<YearMonth, OccupancyGrid> grids; // month -> hour masks + activity ids, allocated on first write
+        private final OpeningHours openingHours;     // closed hours under every day, or null
+        private Map<LocalDate, Map<Integer, String>> scheduleView;
+        private List<Mark> marks = new ArrayList<>();       // fixed hours, replayed before the bookings
+        private List<Booking> bookings = new ArrayList<>(); // reservations in priority order
         
         public RoomSchedule(YearMonth yearMonth) {
-            this.yearMonth = yearMonth;
-            this.schedule = new HashMap<>();
-            
-            // Initialize all days of the month
-            for (int day = 1; day <= yearMonth.lengthOfMonth(); day++) {
-                LocalDate date = yearMonth.atDay(day);
-                schedule.put(date, new HashMap<>());
-            }
+            this(yearMonth, yearMonth);
+        }
+        
+        public RoomSchedule(YearMonth startMonth, YearMonth endMonth) {
+            this(startMonth, endMonth, null);
+        }
+        
+        /**
+         * A schedule whose days start from the given template's closed hours. Until a month
+         * is booked, reads go to the template's shared grid for it.
+         */
+        public RoomSchedule(YearMonth startMonth, YearMonth endMonth, OpeningHours openingHours) {
+            this.startMonth = startMonth;
+            this.endMonth = endMonth;
+            this.openingHours = openingHours;
+            this.grids = new HashMap<>();
+            this.scheduleView = new ScheduleView();
         }
         
         public List<String> addReservationWithDetails(Reservation reservation) {
-            List<String> conflicts = new ArrayList<>();
-            
-            LocalDate start = reservation.getStartDate().isBefore(yearMonth.atDay(1)) ? 
-                yearMonth.atDay(1) : reservation.getStartDate();
+            List<Conflict> conflicts = new ArrayList<>();
+            append(reservation, conflicts);
+            List<String> details = new ArrayList<>(conflicts.size());
+            for (Conflict conflict : conflicts) {
+                details.add(conflict.getDetail());
+            }
+            return details;
+        }
+        
+        /**
+         * Books the reservation after every existing booking, adding one conflict per
+         * colliding day and holder to details, in date order
+         */
+        Booking append(Reservation reservation, List<Conflict> details) {
+            Booking booking = new Booking(reservation);
+            bookings.add(booking);
+            int[] collisions = new int[31];
             
-            LocalDate end = reservation.getEndDate().isAfter(yearMonth.atEndOfMonth()) ? 
-                yearMonth.atEndOfMonth() : reservation.getEndDate();
+            // One pass per month: expand the weekday mask into the month's matching days, then book them together
+            for (Map.Entry<YearMonth, Integer> entry : footprint(reservation).entrySet()) {
+                bookDays(booking, entry.getKey(), entry.getValue(), collisions, details);
+            }
+            return booking;
+        }
+        
+        /**
+         * Conflicts the reservation would raise if it were booked now, without booking it
+         */
+        List<Conflict> clashes(Reservation reservation) {
+            List<Conflict> clashes = new ArrayList<>();
+            for (Map.Entry<YearMonth, Integer> entry : footprint(reservation).entrySet()) {
+                YearMonth month = entry.getKey();
+                OccupancyGrid grid = readGrid(month);
+                if (grid == null) {
+                    continue;
+                }
+                int ignoredHolderId = reservation.isClosed() ? grid.indexOf(reservation.getActivityName()) : -1;
+                for (int remaining = entry.getValue(); remaining != 0; remaining &= remaining - 1) {
+                    int day = Integer.numberOfTrailingZeros(remaining);
+                    int collisions = grid.getMask(day) & reservation.getHourMask();
+                    if (collisions != 0) {
+                        collectConflicts(clashes, reservation, grid, month.atDay(day + 1), day, collisions,
+                                         ignoredHolderId);
+                    }
+                }
+            }
+            return clashes;
+        }
+        
+        /**
+         * Queues a Closed reservation after the existing Closed bookings and before every
+         * regular one; its days take effect on the next replay
+         */
+        Booking insertBeforeRegular(Reservation reservation) {
+            int position = 0;
+            while (position < bookings.size() && bookings.get(position).isClosed()) {
+                position++;
+            }
+            Booking booking = new Booking(reservation);
+            bookings.add(position, booking);
+            return booking;
+        }
+        
+        /**
+         * Finds the booking of this reservation: the same object if present, otherwise the first
+         * one with equal activity, dates, days and hours
+         */
+        Booking findBooking(Reservation reservation) {
+            Booking match = null;
+            for (Booking booking : bookings) {
+                if (booking.reservation == reservation) {
+                    return booking;
+                }
+                if (match == null && booking.sameAs(reservation)) {
+                    match = booking;
+                }
+            }
+            return match;
+        }
+        
+        void removeBooking(Booking booking) {
+            bookings.remove(booking);
+        }
+        
+        List<Booking> getBookings() {
+            return bookings;
+        }
+        
+        /**
+         * Days a reservation covers within this schedule, as month -> day mask in month order
+         */
+        SortedMap<YearMonth, Integer> footprint(Reservation reservation) {
+            SortedMap<YearMonth, Integer> days = new TreeMap<>();
+            if (reservation.getWeekdayMask() == 0 || reservation.getHourMask() == 0) {
+                return days;
+            }
+            YearMonth first = YearMonth.from(reservation.getStartDate());
+            YearMonth last = YearMonth.from(reservation.getEndDate());
+            for (YearMonth month = first.isBefore(startMonth) ? startMonth : first;
+                 !month.isAfter(last) && !month.isAfter(endMonth); month = month.plusMonths(1)) {
+                int dayMask = bookedDays(reservation, month);
+                if (dayMask != 0) {
+                    days.put(month, dayMask);
+                }
+            }
+            return days;
+        }
+        
+        /**
+         * Recomputes the given days (month -> day mask) from the fixed hours and every booking
+         * in order, leaving all other days as they are. Returns the bookings with days among
+         * them, each with its merged conflicts over all its days.
+         */
+        Map<Booking, List<Conflict>> replay(SortedMap<YearMonth, Integer> days) {
+            if (days.isEmpty()) {
+                return Collections.emptyMap();
+            }
+            for (Map.Entry<YearMonth, Integer> entry : days.entrySet()) {
+                OccupancyGrid grid = gridFor(entry.getKey());
+                grid.clearDays(entry.getValue());
+                if (openingHours != null) {
+                    openingHours.apply(grid, entry.getKey(), entry.getValue());
+                }
+            }
+            for (Mark mark : marks) {
+                for (Map.Entry<YearMonth, Integer> entry : days.entrySet()) {
+                    int dayMask = daysBetween(mark.first, mark.last, entry.getKey()) & entry.getValue();
+                    OccupancyGrid grid = gridFor(entry.getKey());
+                    int activityId = dayMask != 0 ? grid.intern(mark.activity) : -1;
+                    for (int remaining = dayMask; remaining != 0; remaining &= remaining - 1) {
+                        grid.markId(Integer.numberOfTrailingZeros(remaining), mark.hourMask, activityId);
+                    }
+                }
+            }
             
-            // Check each day in the reservation period
-            for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
-                // Get day of week (1-7, where 1 is Monday)
-                int dayOfWeek = date.getDayOfWeek().getValue();
-                
-                // Convert to index in the pattern string (0-6)
-                int dayIndex = dayOfWeek - 1;
-                
-                // Get the correct day code based on pattern language
-                char dayCode = getCorrectDayCodeForIndex(reservation.getDayPattern(), dayIndex);
-                
-                // Check if this day is included in the day pattern
-                if (dayCode != '-') {
-                    // Check and reserve each time slot
-                    for (Reservation.TimeRange timeRange : reservation.getTimeRanges()) {
-                        for (int hour = timeRange.getStartHour(); hour < timeRange.getEndHour(); hour++) {
-                            Map<Integer, String> daySchedule = schedule.get(date);
-                            
-                            // Special handling for "Closed" entries
-                            // If current reservation is "Closed" and the slot is already booked for "Closed",
-                            // we don't consider it a conflict
-                            boolean isClosedConflict = "Closed".equals(reservation.getActivityName()) &&
-                                daySchedule.containsKey(hour) &&
-                                "Closed".equals(daySchedule.get(hour));
-                            
-                            // If time slot already taken and it's not a Closed-Closed conflict, add to conflicts
-                            if (daySchedule.containsKey(hour) && !isClosedConflict) {
-                                // Add conflict details
-                                conflicts.add("Time slot " + hour + "-" + (hour + 1) + 
-                                    " on " + date + " already booked for '" + daySchedule.get(hour) + "'");
-                            } else if (!daySchedule.containsKey(hour) || !isClosedConflict) {
-                                // Otherwise, reserve the slot (but don't overwrite existing Closed with new Closed)
-                                daySchedule.put(hour, reservation.getActivityName());
-                            }
-                        }
+            // Every booking is checked against the replayed days, so keep the per-booking work to date comparisons
+            YearMonth[] months = days.keySet().toArray(new YearMonth[0]);
+            LocalDate replayStart = months[0].atDay(1);
+            LocalDate replayEnd = months[months.length - 1].atEndOfMonth();
+            List<Booking> replayed = new ArrayList<>();
+            Map<String, List<Booking>> byActivity = new HashMap<>();
+            int[] collisions = new int[31];
+            for (Booking booking : bookings) {
+                Reservation reservation = booking.reservation;
+                byActivity.computeIfAbsent(reservation.getActivityName(), name -> new ArrayList<>()).add(booking);
+                if (reservation.getEndDate().isBefore(replayStart) || reservation.getStartDate().isAfter(replayEnd)) {
+                    continue;
+                }
+                boolean booked = false;
+                for (YearMonth month : months) {
+                    int dayMask = bookedDays(reservation, month) & days.get(month);
+                    if (dayMask != 0) {
+                        bookDays(booking, month, dayMask, collisions, null);
+                        booked = true;
                     }
                 }
+                if (booked) {
+                    replayed.add(booking);
+                }
             }
             
+            Map<Booking, List<Conflict>> conflicts = new LinkedHashMap<>();
+            for (Booking booking : replayed) {
+                List<Conflict> details = conflictsOf(booking, byActivity.get(booking.reservation.getActivityName()));
+                conflicts.put(booking, mergeConflicts(booking.reservation, details));
+            }
             return conflicts;
         }
         
+        /**
+         * Reads a booking's per-day conflicts back from the grids. Every hour of the booking
+         * held by another activity was taken before it, since later bookings only get free
+         * hours; an hour held by its own activity is its own unless an earlier booking or
+         * mark of that activity covers it too.
+         */
+        private List<Conflict> conflictsOf(Booking booking, List<Booking> sameActivity) {
+            Reservation reservation = booking.reservation;
+            List<Conflict> details = new ArrayList<>();
+            for (Map.Entry<YearMonth, Integer> entry : footprint(reservation).entrySet()) {
+                YearMonth month = entry.getKey();
+                OccupancyGrid grid = readGrid(month);
+                if (grid == null) {
+                    continue;
+                }
+                int ownId = grid.indexOf(reservation.getActivityName());
+                for (int remaining = entry.getValue(); remaining != 0; remaining &= remaining - 1) {
+                    int day = Integer.numberOfTrailingZeros(remaining);
+                    int collisions = grid.getMask(day) & reservation.getHourMask();
+                    if (collisions != 0 && ownId >= 0 && !booking.isClosed()) {
+                        collisions &= ~heldBy(grid, day, collisions, ownId)
+                                      | heldBefore(booking, sameActivity, month, day);
+                    }
+                    if (collisions != 0) {
+                        collectConflicts(details, reservation, grid, month.atDay(day + 1), day, collisions,
+                                         booking.isClosed() ? ownId : -1);
+                    }
+                }
+            }
+            return details;
+        }
+        
+        private static int heldBy(OccupancyGrid grid, int day, int hourMask, int activityId) {
+            int held = 0;
+            for (int remaining = hourMask; remaining != 0; remaining &= remaining - 1) {
+                int hour = Integer.numberOfTrailingZeros(remaining);
+                if (grid.getActivityId(day, hour) == activityId) {
+                    held |= 1 << hour;
+                }
+            }
+            return held;
+        }
+        
+        /**
+         * Hours of the day covered by bookings and marks of the same activity that come
+         * before the given booking
+         */
+        private int heldBefore(Booking booking, List<Booking> sameActivity, YearMonth month, int day) {
+            int held = 0;
+            for (Booking earlier : sameActivity) {
+                if (earlier == booking) {
+                    break;
+                }
+                if ((bookedDays(earlier.reservation, month) & (1 << day)) != 0) {
+                    held |= earlier.reservation.getHourMask();
+                }
+            }
+            String activity = booking.reservation.getActivityName();
+            for (Mark mark : marks) {
+                if (mark.activity.equals(activity) && (daysBetween(mark.first, mark.last, month) & (1 << day)) != 0) {
+                    held |= mark.hourMask;
+                }
+            }
+            return held;
+        }
+        
+        /**
+         * Books the days of the mask, adding their conflicts to details unless it is null
+         */
+        private void bookDays(Booking booking, YearMonth month, int dayMask, int[] collisions,
+                              List<Conflict> details) {
+            OccupancyGrid grid = gridFor(month);
+            int activityId = grid.intern(booking.reservation.getActivityName());
+            
+            // Free hours are booked in bulk, only colliding hours need a closer look
+            int collidingDays = grid.markDays(dayMask, booking.reservation.getHourMask(), activityId, collisions);
+            for (int remaining = details != null ? collidingDays : 0; remaining != 0; remaining &= remaining - 1) {
+                int day = Integer.numberOfTrailingZeros(remaining);
+                collectConflicts(details, booking.reservation, grid, month.atDay(day + 1), day, collisions[day],
+                                 booking.isClosed() ? activityId : -1);
+            }
+        }
+        
+        /**
+         * Days of the month a reservation books: within its dates and on its weekdays
+         */
+        private static int bookedDays(Reservation reservation, YearMonth month) {
+            int inRange = daysBetween(reservation.getStartDate(), reservation.getEndDate(), month);
+            if (inRange == 0) {
+                return 0;
+            }
+            int firstWeekday = month.atDay(1).getDayOfWeek().getValue() - 1;
+            return inRange & matchingDays(reservation.getWeekdayMask(), firstWeekday, 0, month.lengthOfMonth() - 1);
+        }
+        
+        /**
+         * Days of the month (bit d = day d + 1) from first to last, both included
+         */
+        private static int daysBetween(LocalDate first, LocalDate last, YearMonth month) {
+            LocalDate monthStart = month.atDay(1);
+            LocalDate monthEnd = month.atEndOfMonth();
+            if (last.isBefore(monthStart) || first.isAfter(monthEnd)) {
+                return 0;
+            }
+            int firstDay = first.isBefore(monthStart) ? 0 : first.getDayOfMonth() - 1;
+            int lastDay = last.isAfter(monthEnd) ? monthEnd.getDayOfMonth() - 1 : last.getDayOfMonth() - 1;
+            return (int) (((1L << (lastDay + 1)) - 1) & ~((1L << firstDay) - 1));
+        }
+        
         public boolean addReservation(Reservation reservation) {
             return addReservationWithDetails(reservation).isEmpty();
         }
         
+        /**
+         * Turns colliding hours into conflicts, merging runs of consecutive hours held by
+         * the same activity into a single entry. Hours held by ignoredHolderId (Closed over
+         * Closed) are not conflicts.
+         */
+        private static void collectConflicts(List<Conflict> conflicts, Reservation reservation, OccupancyGrid grid,
+                                             LocalDate date, int day, int collisions, int ignoredHolderId) {
+            int remaining = collisions;
+            while (remaining != 0) {
+                int startHour = Integer.numberOfTrailingZeros(remaining);
+                int holderId = grid.getActivityId(day, startHour);
+                int endHour = startHour + 1;
+                while (endHour < OccupancyGrid.HOURS_PER_DAY && (remaining & (1 << endHour)) != 0
+                        && grid.getActivityId(day, endHour) == holderId) {
+                    endHour++;
+                }
+                remaining &= ~OccupancyGrid.hourMask(startHour, endHour);
+                
+                if (holderId != ignoredHolderId) {
+                    conflicts.add(new Conflict(reservation.getRoomName(), reservation.getActivityName(), date,
+                                               startHour, endHour, grid.getActivityName(holderId)));
+                }
+            }
+        }
+        
+        /**
+         * Days of a month (bit d = day d + 1) between firstDay and lastDay whose weekday is in weekdayMask,
+         * given the weekday of the 1st (0 = Monday)
+         */
+        public static int matchingDays(int weekdayMask, int firstWeekday, int firstDay, int lastDay) {
+            // Rotate so bit i means "weekday of day i", then repeat the week across the month
+            long week = ((weekdayMask >>> firstWeekday) | (weekdayMask << (7 - firstWeekday))) & 0x7F;
+            long month = week | week << 7 | week << 14 | week << 21 | week << 28;
+            long range = ((1L << (lastDay + 1)) - 1) & ~((1L << firstDay) - 1);
+            return (int) (month & range);
+        }
+        
+        /**
+         * Books the hours set in the mask on the given date, overwriting existing entries
+         */
+        public void markHours(LocalDate date, int hourMask, String activity) {
+            markDaily(date, date, hourMask, activity);
+        }
+        
+        /**
+         * Books the hours set in the mask on every date from first to last, overwriting existing entries.
+         * Marked hours are kept and replayed before reservations whenever their days are recomputed.
+         */
+        public void markDaily(LocalDate first, LocalDate last, int hourMask, String activity) {
+            Mark mark = new Mark(first, last, hourMask, activity);
+            marks.add(mark);
+            applyMark(mark);
+        }
+        
+        private void applyMark(Mark mark) {
+            LocalDate from = mark.first.isBefore(startMonth.atDay(1)) ? startMonth.atDay(1) : mark.first;
+            LocalDate to = mark.last.isAfter(endMonth.atEndOfMonth()) ? endMonth.atEndOfMonth() : mark.last;
+            OccupancyGrid grid = null;
+            int activityId = -1;
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                if (grid == null || date.getDayOfMonth() == 1) {
+                    grid = gridFor(YearMonth.from(date));
+                    activityId = grid.intern(mark.activity);
+                }
+                grid.markId(date.getDayOfMonth() - 1, mark.hourMask, activityId);
+            }
+        }
+        
+        public boolean isOccupied(LocalDate date, int hour) {
+            OccupancyGrid grid = covers(date) ? readGrid(YearMonth.from(date)) : null;
+            return grid != null && grid.isOccupied(date.getDayOfMonth() - 1, hour);
+        }
+        
+        /**
+         * Returns the activity holding the given slot, or null if it is free
+         */
+        public String getActivity(LocalDate date, int hour) {
+            OccupancyGrid grid = covers(date) ? readGrid(YearMonth.from(date)) : null;
+            return grid != null ? grid.getActivity(date.getDayOfMonth() - 1, hour) : null;
+        }
+        
+        /**
+         * Returns the booked hours of a day as runs of consecutive hours per activity
+         */
+        public List<OccupancyRun> getRuns(LocalDate date) {
+            OccupancyGrid grid = covers(date) ? readGrid(YearMonth.from(date)) : null;
+            return grid != null ? grid.runs(date.getDayOfMonth() - 1) : Collections.emptyList();
+        }
+        
+        public boolean covers(LocalDate date) {
+            YearMonth month = YearMonth.from(date);
+            return !month.isBefore(startMonth) && !month.isAfter(endMonth);
+        }
+        
+        /**
+         * Returns the occupancy grid of a month, or null if nothing was booked in it yet. For a
+         * room with opening hours and no bookings that month, this is the template's shared,
+         * read-only grid.
+         */
+        public OccupancyGrid getGrid(YearMonth month) {
+            return readGrid(month);
+        }
+        
+        public OpeningHours getOpeningHours() {
+            return openingHours;
+        }
+        
+        private OccupancyGrid readGrid(YearMonth month) {
+            OccupancyGrid grid = grids.get(month);
+            if (grid == null && openingHours != null && !month.isBefore(startMonth) && !month.isAfter(endMonth)) {
+                return openingHours.monthGrid(month);
+            }
+            return grid;
+        }
+        
+        private OccupancyGrid gridFor(YearMonth month) {
+            return grids.computeIfAbsent(month, ym -> openingHours != null
+                ? openingHours.monthGrid(ym).copy() : new OccupancyGrid(ym.lengthOfMonth()));
+        }
+        
+        /**
+         * Read-only date -> hour -> activity view over the occupancy grids
+         */
         public Map<LocalDate, Map<Integer, String>> getSchedule() {
-            return schedule;
+            return scheduleView;
         }
         
+        /**
+         * First month of the period covered by this schedule
+         */
         public YearMonth getYearMonth() {
-            return yearMonth;
+            return startMonth;
+        }
+        
+        public YearMonth getEndMonth() {
+            return endMonth;
+        }
+        
+        private Map<Integer, String> dayView(LocalDate date) {
+            OccupancyGrid grid = readGrid(YearMonth.from(date));
+            return grid != null ? grid.dayView(date.getDayOfMonth() - 1) : Collections.emptyMap();
+        }
+        
+        private int dayCount() {
+            return (int) (endMonth.atEndOfMonth().toEpochDay() - startMonth.atDay(1).toEpochDay()) + 1;
+        }
+        
+        private class ScheduleView extends AbstractMap<LocalDate, Map<Integer, String>> {
+            
+            @Override
+            public Map<Integer, String> get(Object key) {
+                return containsKey(key) ? dayView((LocalDate) key) : null;
+            }
+            
+            @Override
+            public boolean containsKey(Object key) {
+                return key instanceof LocalDate && covers((LocalDate) key);
+            }
+            
+            @Override
+            public int size() {
+                return dayCount();
+            }
+            
+            @Override
+            public Set<Map.Entry<LocalDate, Map<Integer, String>>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public Iterator<Map.Entry<LocalDate, Map<Integer, String>>> iterator() {
+                        return new Iterator<>() {
+                            private LocalDate date = startMonth.atDay(1);
+                            
+                            @Override
+                            public boolean hasNext() {
+                                return !date.isAfter(endMonth.atEndOfMonth());
+                            }
+                            
+                            @Override
+                            public Map.Entry<LocalDate, Map<Integer, String>> next() {
+                                if (!hasNext()) {
+                                    throw new NoSuchElementException();
+                                }
+                                LocalDate current = date;
+                                date = date.plusDays(1);
+                                return new SimpleImmutableEntry<>(current, dayView(current));
+                            }
+                        };
+                    }
+                    
+                    @Override
+                    public int size() {
+                        return dayCount();
+                    }
+                };
+            }
         }
         
         /**
-         * Gets the correct day code for the given day index based on the pattern format
+         * Hours booked with markDaily
          */
-        private char getCorrectDayCodeForIndex(String dayPattern, int dayIndex) {
-            if (dayIndex < 0 || dayIndex >= 7 || dayPattern == null || dayPattern.isEmpty()) {
-                return '-';
+        private static class Mark {
+            private final LocalDate first;
+            private final LocalDate last;
+            private final int hourMask;
+            private final String activity;
+            
+            Mark(LocalDate first, LocalDate last, int hourMask, String activity) {
+                this.first = first;
+                this.last = last;
+                this.hourMask = hourMask;
+                this.activity = activity;
+            }
+        }
+        
+        /**
+         * A reservation applied to the room, with the conflicts it raised last time it was booked
+         */
+        static class Booking {
+            final Reservation reservation;
+            ConflictList.Segment conflicts; // merged conflicts as listed in the agenda, or null if none
+            
+            Booking(Reservation reservation) {
+                this.reservation = reservation;
             }
             
-            // Always use Spanish format (LMCJVSG) for day codes
-            String daysPattern = "LMCJVSG";
-            if (dayIndex < daysPattern.length()) {
-                char dayCode = daysPattern.charAt(dayIndex);
-                return dayPattern.indexOf(dayCode) >= 0 ? dayCode : '-';
+            boolean isClosed() {
+                return reservation.isClosed();
             }
             
-            return '-';
+            boolean sameAs(Reservation other) {
+                return Objects.equals(reservation.getActivityName(), other.getActivityName())
+                    && Objects.equals(reservation.getRoomName(), other.getRoomName())
+                    && Objects.equals(reservation.getStartDate(), other.getStartDate())
+                    && Objects.equals(reservation.getEndDate(), other.getEndDate())
+                    && reservation.getWeekdayMask() == other.getWeekdayMask()
+                    && reservation.getHourMask() == other.getHourMask();
+            }
         }
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
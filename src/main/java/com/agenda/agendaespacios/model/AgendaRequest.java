@@ -0,0 +1,174 @@
+package com.agenda.agendaespacios.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JSON body accepted by the agenda API: the config file fields plus one entry
+ * per reservation line, using the same formats as the uploaded files.
+ */
+public class AgendaRequest {
+    private int year;
+    private int month;
+    private Integer endYear;
+    private Integer endMonth;
+    private String sourceLanguage = "ESP";
+    private String targetLanguage = "ENG";
+    private List<ReservationLine> reservations = new ArrayList<>();
+    
+    /**
+     * The config of the request, checked as {@link ConfigData#forPeriod} checks every period
+     */
+    public ConfigData toConfig() {
+        return ConfigData.forPeriod(year, month, endYear != null ? endYear : year, endMonth != null ? endMonth : month,
+                                    sourceLanguage, targetLanguage);
+    }
+    
+    /**
+     * One reservation per line. Lines missing a field are rejected with an
+     * IllegalArgumentException; fields present but malformed give invalid reservations,
+     * as they do in uploaded files.
+     */
+    public List<Reservation> toReservations() {
+        List<Reservation> result = new ArrayList<>();
+        if (reservations != null) {
+            for (int i = 0; i < reservations.size(); i++) {
+                ReservationLine line = reservations.get(i);
+                if (line == null) {
+                    throw new IllegalArgumentException("Reservation " + i + " is empty");
+                }
+                line.checkRequired(i);
+                result.add(new Reservation(line.getActivity(), line.getRoom(), line.getStartDate(),
+                                           line.getEndDate(), line.getDayPattern(), line.getTimePattern()));
+            }
+        }
+        return result;
+    }
+    
+    public int getYear() {
+        return year;
+    }
+    
+    public void setYear(int year) {
+        this.year = year;
+    }
+    
+    public int getMonth() {
+        return month;
+    }
+    
+    public void setMonth(int month) {
+        this.month = month;
+    }
+    
+    public Integer getEndYear() {
+        return endYear;
+    }
+    
+    public void setEndYear(Integer endYear) {
+        this.endYear = endYear;
+    }
+    
+    public Integer getEndMonth() {
+        return endMonth;
+    }
+    
+    public void setEndMonth(Integer endMonth) {
+        this.endMonth = endMonth;
+    }
+    
+    public String getSourceLanguage() {
+        return sourceLanguage;
+    }
+    
+    public void setSourceLanguage(String sourceLanguage) {
+        this.sourceLanguage = sourceLanguage;
+    }
+    
+    public String getTargetLanguage() {
+        return targetLanguage;
+    }
+    
+    public void setTargetLanguage(String targetLanguage) {
+        this.targetLanguage = targetLanguage;
+    }
+    
+    public List<ReservationLine> getReservations() {
+        return reservations;
+    }
+    
+    public void setReservations(List<ReservationLine> reservations) {
+        this.reservations = reservations;
+    }
+    
+    /**
+     * One reservation, e.g. {"activity":"Yoga","room":"Sala1","startDate":"01/07/2024",
+     * "endDate":"31/07/2024","dayPattern":"LMC","timePattern":"10-12"}
+     */
+    public static class ReservationLine {
+        private String activity;
+        private String room;
+        private String startDate;
+        private String endDate;
+        private String dayPattern;
+        private String timePattern;
+        
+        private void checkRequired(int index) {
+            String[][] fields = {{"activity", activity}, {"room", room}, {"startDate", startDate},
+                                 {"endDate", endDate}, {"dayPattern", dayPattern}, {"timePattern", timePattern}};
+            for (String[] field : fields) {
+                if (field[1] == null || field[1].isBlank()) {
+                    throw new IllegalArgumentException("Reservation " + index + " is missing " + field[0]);
+                }
+            }
+        }
+        
+        public String getActivity() {
+            return activity;
+        }
+        
+        public void setActivity(String activity) {
+            this.activity = activity;
+        }
+        
+        public String getRoom() {
+            return room;
+        }
+        
+        public void setRoom(String room) {
+            this.room = room;
+        }
+        
+        public String getStartDate() {
+            return startDate;
+        }
+        
+        public void setStartDate(String startDate) {
+            this.startDate = startDate;
+        }
+        
+        public String getEndDate() {
+            return endDate;
+        }
+        
+        public void setEndDate(String endDate) {
+            this.endDate = endDate;
+        }
+        
+        public String getDayPattern() {
+            return dayPattern;
+        }
+        
+        public void setDayPattern(String dayPattern) {
+            this.dayPattern = dayPattern;
+        }
+        
+        public String getTimePattern() {
+            return timePattern;
+        }
+        
+        public void setTimePattern(String timePattern) {
+            this.timePattern = timePattern;
+        }
+    }
+}
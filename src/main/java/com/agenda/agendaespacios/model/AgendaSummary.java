@@ -0,0 +1,79 @@
+package com.agenda.agendaespacios.model;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compact JSON shape of a computed agenda for machine clients.
+ *
+ * Each room maps dates to run-length encoded occupancy ([start, end, activity]
+ * triples); free days are left out entirely.
+ */
+public class AgendaSummary {
+    private String startPeriod;
+    private String endPeriod;
+    private Map<String, Map<LocalDate, List<OccupancyRun>>> rooms;
+    private List<String> conflicts;
+    private int conflictOverflow;
+    
+    public AgendaSummary(String startPeriod, String endPeriod,
+                         Map<String, Map<LocalDate, List<OccupancyRun>>> rooms, List<String> conflicts) {
+        this(startPeriod, endPeriod, rooms, conflicts, 0);
+    }
+    
+    public AgendaSummary(String startPeriod, String endPeriod,
+                         Map<String, Map<LocalDate, List<OccupancyRun>>> rooms, List<String> conflicts,
+                         int conflictOverflow) {
+        this.startPeriod = startPeriod;
+        this.endPeriod = endPeriod;
+        this.rooms = rooms;
+        this.conflicts = conflicts;
+        this.conflictOverflow = conflictOverflow;
+    }
+    
+    public static AgendaSummary from(ConfigData config, Agenda agenda) {
+        Map<String, Map<LocalDate, List<OccupancyRun>>> rooms = new TreeMap<>();
+        LocalDate first = config.getStartPeriod().atDay(1);
+        LocalDate last = config.getEndPeriod().atEndOfMonth();
+        
+        for (Map.Entry<String, Agenda.RoomSchedule> entry : agenda.getRoomSchedules().entrySet()) {
+            Map<LocalDate, List<OccupancyRun>> days = new LinkedHashMap<>();
+            for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+                List<OccupancyRun> runs = entry.getValue().getRuns(date);
+                if (!runs.isEmpty()) {
+                    days.put(date, runs);
+                }
+            }
+            rooms.put(entry.getKey(), days);
+        }
+        
+        return new AgendaSummary(config.getStartPeriod().toString(), config.getEndPeriod().toString(),
+                                 rooms, agenda.getConflicts(), agenda.getConflictOverflow());
+    }
+    
+    public String getStartPeriod() {
+        return startPeriod;
+    }
+    
+    public String getEndPeriod() {
+        return endPeriod;
+    }
+    
+    public Map<String, Map<LocalDate, List<OccupancyRun>>> getRooms() {
+        return rooms;
+    }
+    
+    public List<String> getConflicts() {
+        return conflicts;
+    }
+    
+    /**
+     * Conflicts left out of the list by the conflict limit
+     */
+    public int getConflictOverflow() {
+        return conflictOverflow;
+    }
+}
@@ -17,13 +17,23 @@ public class AgendaViewModel {
     private Agenda agenda;
     private Map<String, List<WeekSchedule>> roomSchedules = new LinkedHashMap<>();
     private List<String> conflicts;
+    private final boolean lazy;
     
     private static final String FREE_STATUS = "free";
     private static final String CLOSED_STATUS = "Closed";
     
     public AgendaViewModel(ConfigData config, Agenda agenda) {
+        this(config, agenda, false);
+    }
+    
+    /**
+     * With lazy set, room weeks are built while the template iterates them instead of
+     * up front, so only one room's weeks are in memory at a time
+     */
+    public AgendaViewModel(ConfigData config, Agenda agenda, boolean lazy) {
         this.config = config;
         this.agenda = agenda;
+        this.lazy = lazy;
         this.conflicts = agenda != null ? agenda.getConflicts() : new ArrayList<>();
         
         try {
@@ -47,9 +57,11 @@ public class AgendaViewModel {
         try {
             Map<String, Agenda.RoomSchedule> agendaSchedules = agenda.getRoomSchedules();
             
-            // If there are no room schedules in the agenda, create default entries for Sala1 and Sala2
+            // If there are no room schedules in the agenda, show the registered rooms
             if (agendaSchedules == null || agendaSchedules.isEmpty()) {
                 createDefaultRoomSchedules();
+            } else if (lazy) {
+                roomSchedules = new LazyRoomSchedules(agendaSchedules, null);
             } else {
                 // Process actual room schedules from the agenda
                 for (Map.Entry<String, Agenda.RoomSchedule> entry : agendaSchedules.entrySet()) {
@@ -63,7 +75,7 @@ public class AgendaViewModel {
                         Agenda.RoomSchedule roomSchedule = entry.getValue();
                         if (roomSchedule == null) {
                             logger.warn("Found null room schedule for room {}, creating empty one", roomName);
-                            roomSchedule = new Agenda.RoomSchedule(YearMonth.of(config.getYear(), config.getMonth()));
+                            roomSchedule = new Agenda.RoomSchedule(config.getStartPeriod(), config.getEndPeriod());
                         }
                         
                         List<WeekSchedule> weekSchedules = createWeekSchedules(roomName, roomSchedule);
@@ -91,13 +103,13 @@ public class AgendaViewModel {
         
         try {
             // Create default empty schedules
-            YearMonth yearMonth = YearMonth.of(
-                config != null ? config.getYear() : LocalDate.now().getYear(), 
-                config != null ? config.getMonth() : LocalDate.now().getMonthValue()
-            );
+            YearMonth startMonth = config != null ? config.getStartPeriod() : YearMonth.now();
+            YearMonth endMonth = config != null ? config.getEndPeriod() : startMonth;
             
-            for (String roomName : Arrays.asList("Sala1", "Sala2")) {
-                Agenda.RoomSchedule roomSchedule = new Agenda.RoomSchedule(yearMonth);
+            RoomRegistry registry = agenda != null ? agenda.getRoomRegistry() : RoomRegistry.defaults();
+            for (String roomName : registry.getRooms()) {
+                Agenda.RoomSchedule roomSchedule = new Agenda.RoomSchedule(startMonth, endMonth,
+                                                                           registry.getOpeningHours(roomName));
                 List<WeekSchedule> weekSchedules = createWeekSchedules(roomName, roomSchedule);
                 roomSchedules.put(roomName, weekSchedules);
             }
@@ -112,11 +124,9 @@ public class AgendaViewModel {
     
     private List<WeekSchedule> createWeekSchedules(String roomName, Agenda.RoomSchedule roomSchedule) {
         List<WeekSchedule> weekSchedules = new ArrayList<>();
-        YearMonth yearMonth = roomSchedule.getYearMonth();
-        
-        // Group days into weeks
-        LocalDate firstDay = yearMonth.atDay(1);
-        LocalDate lastDay = yearMonth.atEndOfMonth();
+        // Group days of the whole period into weeks
+        LocalDate firstDay = roomSchedule.getYearMonth().atDay(1);
+        LocalDate lastDay = roomSchedule.getEndMonth().atEndOfMonth();
         
         // Move to the first day of the week (Monday)
         LocalDate weekStart = firstDay.with(DayOfWeek.MONDAY);
@@ -136,19 +146,20 @@ public class AgendaViewModel {
                 
                 Map<Integer, String> daySchedule;
                 
-                // For days within the month, get the schedule or create an empty one
-                if (day.getMonth() == yearMonth.getMonth()) {
+                // For days within the period, get the schedule or create an empty one
+                if (!day.isBefore(firstDay) && !day.isAfter(lastDay)) {
                     daySchedule = roomSchedule.getSchedule().getOrDefault(day, new HashMap<>());
                     
                     // Removed code that set hours 0-7 and 21-24 as CLOSED_STATUS
                 } else {
-                    // For days outside the month, create an empty schedule
+                    // For days outside the period, create an empty schedule
                     daySchedule = new HashMap<>();
                 }
                 
                 weekSchedule.addDay(day, daySchedule);
             }
             
+            weekSchedule.precomputeCells();
             weekSchedules.add(weekSchedule);
             
             // Move to next week
@@ -170,10 +181,219 @@ public class AgendaViewModel {
         return conflicts;
     }
     
+    /**
+     * Conflicts as records, so the template can localize each one as it renders it
+     */
+    public List<Conflict> getConflictRecords() {
+        if (agenda != null && conflicts == agenda.getConflicts()) {
+            return agenda.getConflictRecords();
+        }
+        List<Conflict> records = new ArrayList<>();
+        if (conflicts != null) {
+            for (String message : conflicts) {
+                records.add(Conflict.note(message));
+            }
+        }
+        return records;
+    }
+    
+    public int getConflictOverflow() {
+        return agenda != null ? agenda.getConflictOverflow() : 0;
+    }
+    
+    public boolean isLazy() {
+        return lazy;
+    }
+    
+    /**
+     * Room weeks for a single render. On a lazy view model, beforeEachRoom runs before each
+     * room's weeks are built, which lets the caller flush what has been rendered so far.
+     */
+    public Map<String, List<WeekSchedule>> streamRoomSchedules(Runnable beforeEachRoom) {
+        if (roomSchedules instanceof LazyRoomSchedules) {
+            return new LazyRoomSchedules(((LazyRoomSchedules) roomSchedules).rooms, beforeEachRoom);
+        }
+        return roomSchedules;
+    }
+    
+    // Read-only room to weeks view that builds each room's weeks when its entry is read
+    private class LazyRoomSchedules extends AbstractMap<String, List<WeekSchedule>> {
+        private final Map<String, Agenda.RoomSchedule> rooms;
+        private final Runnable beforeEachRoom;
+        
+        LazyRoomSchedules(Map<String, Agenda.RoomSchedule> rooms, Runnable beforeEachRoom) {
+            this.rooms = rooms;
+            this.beforeEachRoom = beforeEachRoom;
+        }
+        
+        @Override
+        public List<WeekSchedule> get(Object key) {
+            Agenda.RoomSchedule roomSchedule = rooms.get(key);
+            return roomSchedule != null ? buildWeeks((String) key, roomSchedule) : null;
+        }
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return rooms.containsKey(key);
+        }
+        
+        @Override
+        public Set<Map.Entry<String, List<WeekSchedule>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<String, List<WeekSchedule>>> iterator() {
+                    Iterator<Map.Entry<String, Agenda.RoomSchedule>> source = rooms.entrySet().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return source.hasNext();
+                        }
+                        
+                        @Override
+                        public Map.Entry<String, List<WeekSchedule>> next() {
+                            Map.Entry<String, Agenda.RoomSchedule> room = source.next();
+                            if (beforeEachRoom != null) {
+                                beforeEachRoom.run();
+                            }
+                            return new LazyRoomEntry(room.getKey(), room.getValue());
+                        }
+                    };
+                }
+                
+                @Override
+                public int size() {
+                    return rooms.size();
+                }
+            };
+        }
+        
+        private List<WeekSchedule> buildWeeks(String roomName, Agenda.RoomSchedule roomSchedule) {
+            try {
+                return createWeekSchedules(roomName, roomSchedule);
+            } catch (Exception e) {
+                logger.error("Error processing room schedule for room {}", roomName, e);
+                return new ArrayList<>();
+            }
+        }
+        
+        // Builds the weeks on first read and keeps them only as long as the entry is referenced
+        private class LazyRoomEntry implements Map.Entry<String, List<WeekSchedule>> {
+            private final String roomName;
+            private final Agenda.RoomSchedule roomSchedule;
+            private List<WeekSchedule> weeks;
+            
+            LazyRoomEntry(String roomName, Agenda.RoomSchedule roomSchedule) {
+                this.roomName = roomName;
+                this.roomSchedule = roomSchedule;
+            }
+            
+            @Override
+            public String getKey() {
+                return roomName;
+            }
+            
+            @Override
+            public List<WeekSchedule> getValue() {
+                if (weeks == null && roomName != null && roomSchedule != null) {
+                    weeks = buildWeeks(roomName, roomSchedule);
+                }
+                return weeks;
+            }
+            
+            @Override
+            public List<WeekSchedule> setValue(List<WeekSchedule> value) {
+                throw new UnsupportedOperationException();
+            }
+        }
+    }
+    
+    // Status of one hour cell, with the CSS class the template uses for it
+    public enum CellStatus {
+        FREE("free"),
+        OCCUPIED("occupied"),
+        CLOSED("closed");
+        
+        private final String cssClass;
+        
+        CellStatus(String cssClass) {
+            this.cssClass = cssClass;
+        }
+        
+        public String getCssClass() {
+            return cssClass;
+        }
+    }
+    
+    // One rendered hour cell; the label is the activity name, or null for free and closed cells
+    public static class Cell {
+        static final Cell FREE = new Cell(CellStatus.FREE, null);
+        static final Cell CLOSED = new Cell(CellStatus.CLOSED, null);
+        
+        private final CellStatus status;
+        private final String label;
+        
+        private Cell(CellStatus status, String label) {
+            this.status = status;
+            this.label = label;
+        }
+        
+        static Cell of(String activity) {
+            if (activity == null || FREE_STATUS.equals(activity)) {
+                return FREE;
+            }
+            if (CLOSED_STATUS.equals(activity)) {
+                return CLOSED;
+            }
+            return new Cell(CellStatus.OCCUPIED, activity);
+        }
+        
+        public CellStatus getStatus() {
+            return status;
+        }
+        
+        public String getCssClass() {
+            return status.getCssClass();
+        }
+        
+        public String getLabel() {
+            return label;
+        }
+        
+        public boolean isOccupied() {
+            return status == CellStatus.OCCUPIED;
+        }
+        
+        public boolean isClosed() {
+            return status == CellStatus.CLOSED;
+        }
+    }
+    
+    // One hour of a week: the time label plus a cell per day
+    public static class HourRow {
+        private final String label;
+        private final List<Cell> cells;
+        
+        HourRow(int hour, List<Cell> cells) {
+            this.label = hour + "-" + (hour + 1);
+            this.cells = cells;
+        }
+        
+        public String getLabel() {
+            return label;
+        }
+        
+        public List<Cell> getCells() {
+            return cells;
+        }
+    }
+    
     // Class to represent a week in the schedule
     public static class WeekSchedule {
         private LocalDate startDate;
         private List<DaySchedule> days = new ArrayList<>();
+        // Cells for the whole week, indexed hour * days + day
+        private Cell[] cells;
+        private List<HourRow> rows;
         
         public WeekSchedule(LocalDate startDate) {
             this.startDate = startDate;
@@ -181,6 +401,42 @@ public class AgendaViewModel {
         
         public void addDay(LocalDate date, Map<Integer, String> schedule) {
             days.add(new DaySchedule(date, schedule));
+            rows = null;
+        }
+        
+        /**
+         * Resolves every hour cell once so rendering is a plain iteration; runs again if days change afterwards
+         */
+        public void precomputeCells() {
+            int dayCount = days.size();
+            cells = new Cell[OccupancyGrid.HOURS_PER_DAY * dayCount];
+            // Occupied cells of one activity share a single Cell
+            Map<String, Cell> byActivity = new HashMap<>();
+            for (int d = 0; d < dayCount; d++) {
+                Map<Integer, String> hourSchedule = days.get(d).getHourSchedule();
+                for (int hour = 0; hour < OccupancyGrid.HOURS_PER_DAY; hour++) {
+                    String activity = hourSchedule.get(hour);
+                    cells[hour * dayCount + d] = activity == null ? Cell.FREE
+                        : byActivity.computeIfAbsent(activity, Cell::of);
+                }
+            }
+            
+            List<HourRow> hourRows = new ArrayList<>(OccupancyGrid.HOURS_PER_DAY);
+            for (int hour = 0; hour < OccupancyGrid.HOURS_PER_DAY; hour++) {
+                hourRows.add(new HourRow(hour, Arrays.asList(cells).subList(hour * dayCount, (hour + 1) * dayCount)));
+            }
+            rows = Collections.unmodifiableList(hourRows);
+        }
+        
+        public List<HourRow> getRows() {
+            if (rows == null) {
+                precomputeCells();
+            }
+            return rows;
+        }
+        
+        public Cell getCell(int hour, int day) {
+            return getRows().get(hour).getCells().get(day);
         }
         
         public LocalDate getStartDate() {
@@ -0,0 +1,245 @@
+package com.agenda.agendaespacios.model;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Agenda that many threads can book into at once, for an agenda kept in memory that
+ * takes live booking traffic.
+ *
+ * Every room has its own read-write lock: writes to different rooms run in parallel,
+ * writes to one room are serialized, and reads of a room only wait for writes to that
+ * room. The room map is concurrent and the conflict list is synchronized, and it is
+ * only held for the short list updates, always after the room lock. {@link #tryBook}
+ * checks the hours and books them under the room's lock, so two concurrent bookings of
+ * the same slot cannot both succeed.
+ *
+ * The RoomSchedules returned by getRoomSchedules are not locked; use the room methods
+ * here while writers are active.
+ */
+public class ConcurrentAgenda extends Agenda {
+
+    private final Map<String, ReadWriteLock> roomLocks = new ConcurrentHashMap<>();
+
+    public ConcurrentAgenda(ConfigData config) {
+        this(config, RoomRegistry.defaults());
+    }
+
+    public ConcurrentAgenda(ConfigData config, RoomRegistry roomRegistry) {
+        super(config, roomRegistry, new ConcurrentHashMap<>(), new SynchronizedConflictList());
+    }
+
+    /**
+     * Books the reservation only if none of its hours are taken, atomically with respect to
+     * other bookings of the room. Returns the clashes that prevented the booking, or an
+     * empty list if it was booked. Closed rules may overlap other Closed hours.
+     */
+    public List<Conflict> tryBook(Reservation reservation) {
+        if (!reservation.isValid()) {
+            return Collections.singletonList(Conflict.note("Invalid reservation format: " +
+                reservation.getActivityName() + " - " + reservation.getErrorMessage()));
+        }
+        if (!inPeriod(reservation)) {
+            return Collections.singletonList(Conflict.note("Reservation " + reservation.getActivityName() +
+                " is outside the agenda period"));
+        }
+        return write(reservation, () -> {
+            RoomSchedule roomSchedule = getRoomSchedules().computeIfAbsent(reservation.getRoomName(),
+                                                                           this::newRoomSchedule);
+            List<Conflict> clashes = roomSchedule.clashes(reservation);
+            if (clashes.isEmpty()) {
+                super.applyReservation(reservation);
+            }
+            return clashes;
+        });
+    }
+
+    @Override
+    public void addReservation(Reservation reservation) {
+        write(reservation, () -> {
+            super.addReservation(reservation);
+            return null;
+        });
+    }
+
+    @Override
+    public List<String> applyReservation(Reservation reservation) {
+        return write(reservation, () -> super.applyReservation(reservation));
+    }
+
+    @Override
+    public boolean retractReservation(Reservation reservation) {
+        return write(reservation, () -> super.retractReservation(reservation));
+    }
+
+    /**
+     * Adds the reservations one by one, each under its room's lock, so concurrent writers
+     * can interleave with the batch. The pool is not used.
+     */
+    @Override
+    public void addReservations(List<Reservation> reservations, ForkJoinPool pool,
+                                BiConsumer<Reservation, RuntimeException> onError, Runnable afterEach) {
+        for (Reservation reservation : reservations) {
+            try {
+                addReservation(reservation);
+            } catch (RuntimeException e) {
+                onError.accept(reservation, e);
+            }
+            if (afterEach != null) {
+                afterEach.run();
+            }
+        }
+    }
+
+    /**
+     * Whether the room has no booked or closed hour between startHour and endHour on the date
+     */
+    public boolean isFree(String roomName, LocalDate date, int startHour, int endHour) {
+        return read(roomName, () -> {
+            RoomSchedule roomSchedule = getRoomSchedules().get(roomName);
+            OccupancyGrid grid = roomSchedule != null && roomSchedule.covers(date)
+                ? roomSchedule.getGrid(YearMonth.from(date)) : null;
+            return grid == null ||
+                   (grid.getMask(date.getDayOfMonth() - 1) & OccupancyGrid.hourMask(startHour, endHour)) == 0;
+        });
+    }
+
+    /**
+     * Booked hours of a room on a date as runs of consecutive hours per activity
+     */
+    public List<OccupancyRun> getRuns(String roomName, LocalDate date) {
+        return read(roomName, () -> {
+            RoomSchedule roomSchedule = getRoomSchedules().get(roomName);
+            return roomSchedule != null ? roomSchedule.getRuns(date) : Collections.<OccupancyRun>emptyList();
+        });
+    }
+
+    /**
+     * A read-only copy of the conflict messages as they are now, safe to iterate while
+     * writers are active. getConflicts stays the live list, which callers may add notes to
+     * but must hold while iterating.
+     */
+    public List<String> getConflictSnapshot() {
+        List<String> conflicts = getConflicts();
+        synchronized (conflicts) {
+            return Collections.unmodifiableList(new ArrayList<>(conflicts));
+        }
+    }
+
+    /**
+     * A read-only copy of the conflict records as they are now
+     */
+    public List<Conflict> getConflictRecordSnapshot() {
+        List<String> conflicts = getConflicts();
+        synchronized (conflicts) {
+            return Collections.unmodifiableList(new ArrayList<>(getConflictRecords()));
+        }
+    }
+
+    private <T> T write(Reservation reservation, Supplier<T> action) {
+        if (reservation.getRoomName() == null) {
+            // Invalid, only adds a note to the conflict list
+            return action.get();
+        }
+        Lock lock = lockOf(reservation.getRoomName()).writeLock();
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T> T read(String roomName, Supplier<T> action) {
+        Lock lock = lockOf(roomName).readLock();
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReadWriteLock lockOf(String roomName) {
+        return roomLocks.computeIfAbsent(roomName, room -> new ReentrantReadWriteLock());
+    }
+
+    /**
+     * Conflict list whose updates and reads hold its monitor, so rooms can add their
+     * conflicts concurrently
+     */
+    private static class SynchronizedConflictList extends ConflictList {
+
+        @Override
+        synchronized void setLimit(int limit) {
+            super.setLimit(limit);
+        }
+
+        @Override
+        synchronized int getTotal() {
+            return super.getTotal();
+        }
+
+        @Override
+        synchronized int getOverflow() {
+            return super.getOverflow();
+        }
+
+        @Override
+        synchronized Segment addSegment(Collection<Conflict> conflicts) {
+            return super.addSegment(conflicts);
+        }
+
+        @Override
+        synchronized Segment replaceSegment(Segment segment, Collection<Conflict> conflicts) {
+            return super.replaceSegment(segment, conflicts);
+        }
+
+        @Override
+        synchronized void removeSegment(Segment segment) {
+            super.removeSegment(segment);
+        }
+
+        @Override
+        synchronized boolean holds(Segment segment, List<Conflict> conflicts) {
+            return super.holds(segment, conflicts);
+        }
+
+        @Override
+        public synchronized boolean add(String message) {
+            return super.add(message);
+        }
+
+        @Override
+        public synchronized String get(int index) {
+            return super.get(index);
+        }
+
+        @Override
+        public synchronized String remove(int index) {
+            return super.remove(index);
+        }
+
+        @Override
+        public synchronized void clear() {
+            super.clear();
+        }
+
+        @Override
+        public synchronized int size() {
+            return super.size();
+        }
+    }
+}
@@ -1,15 +1,24 @@
 package com.agenda.agendaespacios.model;
 
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
 public class ConfigData {
     private int year;
     private int month;
+    private int endYear;
+    private int endMonth;
     private String sourceLanguage;
     private String targetLanguage;
     
+    /** Longest period a configuration may cover; agendas and summaries hold every day of every room */
+    public static final int MAX_PERIOD_MONTHS = 24;
+    
     // Map of day codes to their corresponding values in different languages
     private static final Map<String, Map<Character, Character>> DAY_CODES = new HashMap<>();
     
@@ -17,9 +26,36 @@ public class ConfigData {
         // No mappings needed - we will only use Spanish day codes (LMCJVSG)
     }
     
+    /**
+     * A configuration for the period from year/month to endYear/endMonth, rejecting one that
+     * ends before it starts or spans more than MAX_PERIOD_MONTHS months with an
+     * IllegalArgumentException. Every upload and request goes through this check.
+     */
+    public static ConfigData forPeriod(int year, int month, int endYear, int endMonth,
+                                       String sourceLanguage, String targetLanguage) {
+        YearMonth start = YearMonth.of(year, month);
+        YearMonth end = YearMonth.of(endYear, endMonth);
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("End period cannot be before start period");
+        }
+        if (ChronoUnit.MONTHS.between(start, end) >= MAX_PERIOD_MONTHS) {
+            throw new IllegalArgumentException("Period cannot be longer than " + MAX_PERIOD_MONTHS + " months");
+        }
+        return new ConfigData(year, month, endYear, endMonth, sourceLanguage, targetLanguage);
+    }
+    
     public ConfigData(int year, int month, String sourceLanguage, String targetLanguage) {
+        this(year, month, year, month, sourceLanguage, targetLanguage);
+    }
+    
+    /**
+     * Creates a configuration covering every month from year/month to endYear/endMonth (inclusive)
+     */
+    public ConfigData(int year, int month, int endYear, int endMonth, String sourceLanguage, String targetLanguage) {
         this.year = year;
         this.month = month;
+        this.endYear = endYear;
+        this.endMonth = endMonth;
         this.sourceLanguage = sourceLanguage;
         this.targetLanguage = targetLanguage;
     }
@@ -32,6 +68,42 @@ public class ConfigData {
         return month;
     }
     
+    public int getEndYear() {
+        return endYear;
+    }
+    
+    public int getEndMonth() {
+        return endMonth;
+    }
+    
+    public YearMonth getStartPeriod() {
+        return YearMonth.of(year, month);
+    }
+    
+    public YearMonth getEndPeriod() {
+        return YearMonth.of(endYear, endMonth);
+    }
+    
+    public boolean isMultiMonth() {
+        return year != endYear || month != endMonth;
+    }
+    
+    /**
+     * Returns every month in the configured period, in order
+     */
+    public List<YearMonth> getMonths() {
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth ym = getStartPeriod(); !ym.isAfter(getEndPeriod()); ym = ym.plusMonths(1)) {
+            months.add(ym);
+        }
+        return months;
+    }
+    
+    public String getPeriodDisplay() {
+        String start = month + "/" + year;
+        return isMultiMonth() ? start + " - " + endMonth + "/" + endYear : start;
+    }
+    
     public String getSourceLanguage() {
         return sourceLanguage;
     }
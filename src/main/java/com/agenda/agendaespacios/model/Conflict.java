@@ -0,0 +1,161 @@
+package com.agenda.agendaespacios.model;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * A booking conflict: an activity asked for hours [startHour, endHour) of a room that were
+ * already held by another activity, on every occurrence of the reservation from firstDate
+ * to lastDate (days occurrences in all). Free-text entries such as parse errors are kept as
+ * notes, with only a message.
+ *
+ * The message is built when asked for, so agendas with many conflicts only pay for the
+ * ones that are shown. Localized views use getMessageKey and getMessageArgs instead.
+ */
+public class Conflict {
+    private final String room;
+    private final String activity;
+    private final LocalDate firstDate;
+    private final LocalDate lastDate;
+    private final int days;
+    private final int startHour;
+    private final int endHour;
+    private final String holder;
+    private final String note;
+
+    public Conflict(String room, String activity, LocalDate date, int startHour, int endHour, String holder) {
+        this(room, activity, date, date, 1, startHour, endHour, holder, null);
+    }
+
+    private Conflict(String room, String activity, LocalDate firstDate, LocalDate lastDate, int days,
+                     int startHour, int endHour, String holder, String note) {
+        this.room = room;
+        this.activity = activity;
+        this.firstDate = firstDate;
+        this.lastDate = lastDate;
+        this.days = days;
+        this.startHour = startHour;
+        this.endHour = endHour;
+        this.holder = holder;
+        this.note = note;
+    }
+
+    /**
+     * A free-text entry that is not tied to a slot
+     */
+    public static Conflict note(String message) {
+        return new Conflict(null, null, null, null, 0, 0, 0, null, message);
+    }
+
+    /**
+     * The same conflict, also covering one more occurrence on the given date
+     */
+    Conflict extendTo(LocalDate date) {
+        return new Conflict(room, activity, firstDate, date, days + 1, startHour, endHour, holder, null);
+    }
+
+    /**
+     * Whether another single-day conflict is for the same hours and holder
+     */
+    boolean sameSlot(Conflict other) {
+        return startHour == other.startHour && endHour == other.endHour && Objects.equals(holder, other.holder);
+    }
+
+    public boolean isNote() {
+        return note != null;
+    }
+
+    public String getRoom() {
+        return room;
+    }
+
+    public String getActivity() {
+        return activity;
+    }
+
+    public LocalDate getFirstDate() {
+        return firstDate;
+    }
+
+    public LocalDate getLastDate() {
+        return lastDate;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public int getStartHour() {
+        return startHour;
+    }
+
+    public int getEndHour() {
+        return endHour;
+    }
+
+    public String getHolder() {
+        return holder;
+    }
+
+    /**
+     * The slot part of the message, without room and activity
+     */
+    public String getDetail() {
+        if (note != null) {
+            return note;
+        }
+        String dates = days == 1 ? firstDate.toString() : firstDate + " to " + lastDate + " (" + days + " days)";
+        return "Time slot " + startHour + "-" + endHour + " on " + dates + " already booked for '" + holder + "'";
+    }
+
+    public String getMessage() {
+        if (note != null) {
+            return note;
+        }
+        return "Conflict in room " + room + " for activity " + activity + ": " + getDetail();
+    }
+
+    /**
+     * Message bundle key for a localized message, or null for notes
+     */
+    public String getMessageKey() {
+        if (note != null) {
+            return null;
+        }
+        return days == 1 ? "conflict.slot" : "conflict.slot.range";
+    }
+
+    /**
+     * Arguments of the localized message: room, activity, start and end hour, first date,
+     * last date, number of days and holder
+     */
+    public Object[] getMessageArgs() {
+        return new Object[] {room, activity, String.valueOf(startHour), String.valueOf(endHour),
+                             String.valueOf(firstDate), String.valueOf(lastDate), String.valueOf(days), holder};
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Conflict)) {
+            return false;
+        }
+        Conflict other = (Conflict) o;
+        return days == other.days && startHour == other.startHour && endHour == other.endHour
+            && Objects.equals(room, other.room) && Objects.equals(activity, other.activity)
+            && Objects.equals(firstDate, other.firstDate) && Objects.equals(lastDate, other.lastDate)
+            && Objects.equals(holder, other.holder) && Objects.equals(note, other.note);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(room, activity, firstDate, lastDate, days, startHour, endHour, holder, note);
+    }
+
+    @Override
+    public String toString() {
+        return getMessage();
+    }
+}
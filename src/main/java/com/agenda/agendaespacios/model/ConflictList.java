@@ -0,0 +1,281 @@
+package com.agenda.agendaespacios.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Conflicts of an agenda, stored as one segment per booking so an incremental update can
+ * swap a booking's conflicts without scanning the whole list.
+ *
+ * Only the first limit conflicts are kept as records; past the limit a segment just
+ * counts its conflicts, so a bad upload costs a counter rather than a record per clash.
+ * Removing a segment does not bring back records that were already dropped, but
+ * replacing one keeps its new records while there is room. Messages are rendered when
+ * read, and messages added directly are kept as notes in a trailing segment of their
+ * own. Iteration follows the order segments were created in.
+ */
+class ConflictList extends AbstractList<String> {
+
+    private final List<Segment> segments = new ArrayList<>();
+    private final List<Conflict> records = new RecordView();
+    private Segment loose;
+    private int total; // conflicts counted, kept or not
+    private int kept;  // conflicts kept as records
+    private int limit = Integer.MAX_VALUE;
+
+    /**
+     * Caps how many conflicts are kept and shown. Raising it later does not bring back
+     * records already dropped.
+     */
+    void setLimit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Conflict limit cannot be negative: " + limit);
+        }
+        this.limit = limit;
+        modCount++;
+    }
+
+    /**
+     * Shown conflicts, as records
+     */
+    List<Conflict> records() {
+        return records;
+    }
+
+    /**
+     * Number of conflicts counted, shown or not
+     */
+    int getTotal() {
+        return total;
+    }
+
+    /**
+     * Number of conflicts left out of the list by the limit
+     */
+    int getOverflow() {
+        return total - size();
+    }
+
+    /**
+     * Adds a new segment holding the given conflicts and returns it
+     */
+    Segment addSegment(Collection<Conflict> conflicts) {
+        Segment segment = new Segment();
+        segment.owner = this;
+        fill(segment, conflicts);
+        segments.add(segment);
+        loose = null;
+        modCount++;
+        return segment;
+    }
+
+    /**
+     * Replaces the conflicts of a segment in place, or adds a new segment if the given
+     * one is not part of this list. Returns the segment now holding the conflicts, or
+     * null if there are none and no segment to hold them.
+     */
+    Segment replaceSegment(Segment segment, Collection<Conflict> conflicts) {
+        if (segment == null || segment.owner != this) {
+            return conflicts.isEmpty() ? null : addSegment(conflicts);
+        }
+        total -= segment.count;
+        kept -= segment.records.size();
+        fill(segment, conflicts);
+        modCount++;
+        return segment;
+    }
+
+    /**
+     * Drops a segment and its conflicts; does nothing if it is not part of this list
+     */
+    void removeSegment(Segment segment) {
+        if (segment == null || segment.owner != this) {
+            return;
+        }
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            if (segments.get(i) == segment) {
+                segments.remove(i);
+                break;
+            }
+        }
+        segment.owner = null;
+        total -= segment.count;
+        kept -= segment.records.size();
+        if (loose == segment) {
+            loose = null;
+        }
+        modCount++;
+    }
+
+    /**
+     * Whether the segment is part of this list and holds exactly these conflicts
+     */
+    boolean holds(Segment segment, List<Conflict> conflicts) {
+        if (segment == null || segment.owner != this) {
+            return conflicts.isEmpty();
+        }
+        return segment.count == segment.records.size() && segment.records.equals(conflicts);
+    }
+
+    /**
+     * Adds a free-text note
+     */
+    @Override
+    public boolean add(String message) {
+        if (loose == null) {
+            loose = new Segment();
+            loose.owner = this;
+            segments.add(loose);
+        }
+        if (kept < limit) {
+            loose.records.add(Conflict.note(message));
+            kept++;
+        }
+        loose.count++;
+        total++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public String get(int index) {
+        return records.get(index).getMessage();
+    }
+
+    @Override
+    public String remove(int index) {
+        int[] position = locate(index);
+        Segment segment = segments.get(position[0]);
+        Conflict removed = segment.records.remove(position[1]);
+        segment.count--;
+        kept--;
+        total--;
+        modCount++;
+        return removed.getMessage();
+    }
+
+    @Override
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.owner = null;
+        }
+        segments.clear();
+        loose = null;
+        total = 0;
+        kept = 0;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return Math.min(kept, limit);
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        Iterator<Conflict> conflicts = records.iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return conflicts.hasNext();
+            }
+
+            @Override
+            public String next() {
+                return conflicts.next().getMessage();
+            }
+        };
+    }
+
+    /**
+     * Keeps as many of the conflicts as the limit leaves room for and counts them all
+     */
+    private void fill(Segment segment, Collection<Conflict> conflicts) {
+        int room = Math.max(0, limit - kept);
+        if (conflicts.size() <= room) {
+            segment.records = new ArrayList<>(conflicts);
+        } else {
+            segment.records = new ArrayList<>(room);
+            for (Iterator<Conflict> it = conflicts.iterator(); segment.records.size() < room; ) {
+                segment.records.add(it.next());
+            }
+        }
+        segment.count = conflicts.size();
+        kept += segment.records.size();
+        total += segment.count;
+    }
+
+    /**
+     * Segment number and offset within it of a list index
+     */
+    private int[] locate(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        int remaining = index;
+        for (int i = 0; i < segments.size(); i++) {
+            int segmentSize = segments.get(i).records.size();
+            if (remaining < segmentSize) {
+                return new int[] {i, remaining};
+            }
+            remaining -= segmentSize;
+        }
+        throw new IllegalStateException("Conflict segments out of sync");
+    }
+
+    private class RecordView extends AbstractList<Conflict> {
+        @Override
+        public Conflict get(int index) {
+            int[] position = locate(index);
+            return segments.get(position[0]).records.get(position[1]);
+        }
+
+        @Override
+        public int size() {
+            return ConflictList.this.size();
+        }
+
+        @Override
+        public Iterator<Conflict> iterator() {
+            return new Iterator<>() {
+                private int segment;
+                private int position;
+                private int returned;
+
+                @Override
+                public boolean hasNext() {
+                    if (returned >= limit) {
+                        return false;
+                    }
+                    while (segment < segments.size() && position >= segments.get(segment).records.size()) {
+                        segment++;
+                        position = 0;
+                    }
+                    return segment < segments.size();
+                }
+
+                @Override
+                public Conflict next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    returned++;
+                    return segments.get(segment).records.get(position++);
+                }
+            };
+        }
+    }
+
+    /**
+     * The conflicts of one booking: the records kept and how many there are in all
+     */
+    static final class Segment {
+        private ConflictList owner;
+        private List<Conflict> records = new ArrayList<>();
+        private int count;
+    }
+}
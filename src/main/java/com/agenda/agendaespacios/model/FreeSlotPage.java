@@ -0,0 +1,83 @@
+package com.agenda.agendaespacios.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One page of free-slot search results, best matches first, plus the total number of matches
+ */
+public class FreeSlotPage {
+    private final int page;
+    private final int size;
+    private final int total;
+    private final List<Match> matches;
+
+    public FreeSlotPage(int page, int size, int total, List<Match> matches) {
+        this.page = page;
+        this.size = size;
+        this.total = total;
+        this.matches = matches;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public List<Match> getMatches() {
+        return matches;
+    }
+
+    /**
+     * A free window of the requested length [startHour, endHour) in a room, inside a free run
+     * that lasts until freeUntil
+     */
+    public static class Match {
+        private final String room;
+        private final LocalDate date;
+        private final int startHour;
+        private final int endHour;
+        private final int freeUntil;
+
+        public Match(String room, LocalDate date, int startHour, int endHour, int freeUntil) {
+            this.room = room;
+            this.date = date;
+            this.startHour = startHour;
+            this.endHour = endHour;
+            this.freeUntil = freeUntil;
+        }
+
+        public String getRoom() {
+            return room;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public int getStartHour() {
+            return startHour;
+        }
+
+        public int getEndHour() {
+            return endHour;
+        }
+
+        public int getFreeUntil() {
+            return freeUntil;
+        }
+
+        @Override
+        public String toString() {
+            return room + " " + date + " " + startHour + "-" + endHour +
+                   (freeUntil > endHour ? " (free until " + freeUntil + ")" : "");
+        }
+    }
+}
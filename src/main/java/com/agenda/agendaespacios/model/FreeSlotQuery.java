@@ -0,0 +1,152 @@
+package com.agenda.agendaespacios.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parameters of a free-slot search: how many consecutive hours are needed, on which
+ * weekdays (LMCJVSG codes, as in reservation files), inside which hour window and
+ * dates, in which rooms, and which page of the ranked matches to return.
+ *
+ * Dates use ISO format (yyyy-MM-dd); when left out the whole agenda period is searched.
+ * An empty room list searches every room.
+ */
+public class FreeSlotQuery {
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private int duration = 1;
+    private String days = "LMCJVSG";
+    private int startHour = 0;
+    private int endHour = OccupancyGrid.HOURS_PER_DAY;
+    private String from;
+    private String to;
+    private List<String> rooms = new ArrayList<>();
+    private int page = 0;
+    private int size = 20;
+
+    /**
+     * Checks the parameters, throwing IllegalArgumentException with a readable message
+     */
+    public void validate() {
+        if (duration < 1 || duration > OccupancyGrid.HOURS_PER_DAY) {
+            throw new IllegalArgumentException("Duration must be between 1 and 24 hours: " + duration);
+        }
+        if (startHour < 0 || endHour > OccupancyGrid.HOURS_PER_DAY || endHour - startHour < duration) {
+            throw new IllegalArgumentException("Hour window " + startHour + "-" + endHour +
+                                               " cannot fit " + duration + " hours");
+        }
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        getWeekdayMask();
+    }
+
+    /**
+     * Weekdays to search as a mask (bit 0 = Monday)
+     */
+    public int getWeekdayMask() {
+        if (days == null || days.isEmpty()) {
+            throw new IllegalArgumentException("Day pattern cannot be empty");
+        }
+        int mask = 0;
+        for (int i = 0; i < days.length(); i++) {
+            int bit = Reservation.weekdayBit(days.charAt(i));
+            if (bit == 0) {
+                throw new IllegalArgumentException("Invalid day in pattern: " + days.charAt(i) + ". Must be one of: LMCJVSG");
+            }
+            mask |= bit;
+        }
+        return mask;
+    }
+
+    public int getWindowMask() {
+        return OccupancyGrid.hourMask(startHour, endHour);
+    }
+
+    /**
+     * First date to search, or the given default when none was set
+     */
+    public LocalDate fromOr(LocalDate defaultDate) {
+        return from != null && !from.isEmpty() ? LocalDate.parse(from) : defaultDate;
+    }
+
+    /**
+     * Last date to search (included), or the given default when none was set
+     */
+    public LocalDate toOr(LocalDate defaultDate) {
+        return to != null && !to.isEmpty() ? LocalDate.parse(to) : defaultDate;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public void setDuration(int duration) {
+        this.duration = duration;
+    }
+
+    public String getDays() {
+        return days;
+    }
+
+    public void setDays(String days) {
+        this.days = days;
+    }
+
+    public int getStartHour() {
+        return startHour;
+    }
+
+    public void setStartHour(int startHour) {
+        this.startHour = startHour;
+    }
+
+    public int getEndHour() {
+        return endHour;
+    }
+
+    public void setEndHour(int endHour) {
+        this.endHour = endHour;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    public List<String> getRooms() {
+        return rooms;
+    }
+
+    public void setRooms(List<String> rooms) {
+        this.rooms = rooms;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
@@ -0,0 +1,87 @@
+package com.agenda.agendaespacios.model;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only occupancy grid of one room-month, served straight from a month slot of a
+ * memory-mapped {@link OccupancyFile}.
+ *
+ * Masks and activity ids are read from the mapping on every lookup, so a grid costs no
+ * heap beyond this object; activity names come from the file's shared name table.
+ */
+public class MappedOccupancyGrid {
+
+    private final OccupancyFile file;
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int days;
+
+    MappedOccupancyGrid(OccupancyFile file, ByteBuffer buffer, int offset, int days) {
+        this.file = file;
+        this.buffer = buffer;
+        this.offset = offset;
+        this.days = days;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public int getMask(int day) {
+        if (day < 0 || day >= days) {
+            throw new IndexOutOfBoundsException("Day " + day + " outside grid of " + days + " days");
+        }
+        return buffer.getInt(offset + day * Integer.BYTES);
+    }
+
+    public boolean isOccupied(int day, int hour) {
+        return hour >= 0 && hour < OccupancyGrid.HOURS_PER_DAY && (getMask(day) & (1 << hour)) != 0;
+    }
+
+    /**
+     * Returns the activity holding the given hour, or null if the hour is free
+     */
+    public String getActivity(int day, int hour) {
+        return isOccupied(day, hour) ? file.getActivityName(activityId(day, hour)) : null;
+    }
+
+    /**
+     * Run-length encodes one day, as {@link OccupancyGrid#runs} does
+     */
+    public List<OccupancyRun> runs(int day) {
+        List<OccupancyRun> runs = new ArrayList<>();
+        int remaining = getMask(day);
+        while (remaining != 0) {
+            int startHour = Integer.numberOfTrailingZeros(remaining);
+            int activityId = activityId(day, startHour);
+            int endHour = startHour + 1;
+            while (endHour < OccupancyGrid.HOURS_PER_DAY && (remaining & (1 << endHour)) != 0
+                    && activityId(day, endHour) == activityId) {
+                endHour++;
+            }
+            runs.add(new OccupancyRun(startHour, endHour, file.getActivityName(activityId)));
+            remaining &= ~OccupancyGrid.hourMask(startHour, endHour);
+        }
+        return runs;
+    }
+
+    /**
+     * Copies the month back into an in-memory grid
+     */
+    public OccupancyGrid toGrid() {
+        OccupancyGrid grid = new OccupancyGrid(days);
+        for (int day = 0; day < days; day++) {
+            for (OccupancyRun run : runs(day)) {
+                grid.markMask(day, OccupancyGrid.hourMask(run.getStartHour(), run.getEndHour()), run.getActivity());
+            }
+        }
+        return grid;
+    }
+
+    private int activityId(int day, int hour) {
+        return buffer.getShort(offset + OccupancyFile.MAX_DAYS * Integer.BYTES
+            + (day * OccupancyGrid.HOURS_PER_DAY + hour) * Short.BYTES);
+    }
+}
@@ -0,0 +1,157 @@
+package com.agenda.agendaespacios.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Maps the activity and room names of one upload to dense int ids and canonical Strings.
+ *
+ * Names are looked up straight from the UTF-8 bytes of the reservations file, so a name
+ * that repeats on thousands of lines is decoded into a String only the first time and
+ * every reservation shares that instance. "Closed" always has id {@link #CLOSED_ID} and
+ * resolves to {@link OpeningHours#CLOSED}.
+ *
+ * The chunks of a parallel parse share one dictionary. Names already registered are
+ * found without locking: entries are immutable and the tables are replaced, never
+ * resized in place, so a reader sees either a complete entry or an empty slot. Only an
+ * empty slot takes the lock, to look again and register the name.
+ */
+public class NameDictionary {
+
+    public static final int CLOSED_ID = 0;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private volatile Entry[] slots = new Entry[INITIAL_CAPACITY];
+    private volatile Entry[] byId = new Entry[INITIAL_CAPACITY / 2];
+    private volatile int size;
+
+    public NameDictionary() {
+        id(OpeningHours.CLOSED);
+    }
+
+    /**
+     * Id of a name, registering it if it is new
+     */
+    public int id(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        return id(bytes, 0, bytes.length, name);
+    }
+
+    /**
+     * Id of the name encoded in buf[start, end), registering it if it is new
+     */
+    public int id(byte[] buf, int start, int end) {
+        return id(buf, start, end, null);
+    }
+
+    private int id(byte[] buf, int start, int end, String name) {
+        int hash = hash(buf, start, end);
+        Entry entry = find(slots, hash, buf, start, end);
+        return entry != null ? entry.id : register(hash, buf, start, end, name);
+    }
+
+    private synchronized int register(int hash, byte[] buf, int start, int end, String name) {
+        Entry[] table = slots;
+        Entry found = find(table, hash, buf, start, end);
+        if (found != null) {
+            return found.id;
+        }
+
+        int id = size;
+        Entry entry = new Entry(id, hash, Arrays.copyOfRange(buf, start, end),
+                                name != null ? name : new String(buf, start, end - start, StandardCharsets.UTF_8));
+        Entry[] ids = byId;
+        if (id == ids.length) {
+            ids = Arrays.copyOf(ids, id * 2);
+        }
+        ids[id] = entry;
+        byId = ids;
+        if ((id + 1) * 2 > table.length) {
+            table = rehash(table);
+        }
+        insert(table, entry);
+        slots = table;
+        size = id + 1;
+        return id;
+    }
+
+    /**
+     * The canonical String of an id
+     */
+    public String name(int id) {
+        Entry[] ids = byId;
+        Entry entry = id >= 0 && id < ids.length ? ids[id] : null;
+        if (entry == null) {
+            synchronized (this) {
+                if (id < 0 || id >= size) {
+                    throw new IllegalArgumentException("Unknown name id: " + id);
+                }
+                entry = byId[id];
+            }
+        }
+        return entry.name;
+    }
+
+    /**
+     * Number of names registered; ids run from 0 to this count - 1
+     */
+    public int size() {
+        return size;
+    }
+
+    private static Entry find(Entry[] table, int hash, byte[] buf, int start, int end) {
+        int mask = table.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            Entry entry = table[slot];
+            if (entry == null) {
+                return null;
+            }
+            if (entry.hash == hash && Arrays.equals(entry.key, 0, entry.key.length, buf, start, end)) {
+                return entry;
+            }
+        }
+    }
+
+    private static void insert(Entry[] table, Entry entry) {
+        int mask = table.length - 1;
+        int slot = entry.hash & mask;
+        while (table[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry;
+    }
+
+    private static Entry[] rehash(Entry[] table) {
+        Entry[] newTable = new Entry[table.length * 2];
+        for (Entry entry : table) {
+            if (entry != null) {
+                insert(newTable, entry);
+            }
+        }
+        return newTable;
+    }
+
+    private static int hash(byte[] buf, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + buf[i];
+        }
+        // Spread the low bits, which pick the slot
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Entry {
+        final int id;
+        final int hash;
+        final byte[] key;
+        final String name;
+
+        Entry(int id, int hash, byte[] key, String name) {
+            this.id = id;
+            this.hash = hash;
+            this.key = key;
+            this.name = name;
+        }
+    }
+}
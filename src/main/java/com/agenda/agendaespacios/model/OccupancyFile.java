@@ -0,0 +1,245 @@
+package com.agenda.agendaespacios.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Occupancy of one room over a run of months, in a fixed binary layout that is
+ * memory-mapped and read in place.
+ *
+ * File layout (big-endian):
+ * <pre>
+ *   0   int     magic "AGOF"
+ *   4   short   format version
+ *   6   short   number of month slots
+ *   8   int     first month, as year * 12 + month - 1
+ *   12  int     number of activity names
+ *   16  int     offset of the name table
+ *   20  byte[n] 1 for every slot that holds a saved month, padded to 4 bytes
+ *   ..  n month slots of SLOT_BYTES each:
+ *         int[31]       hour masks, bit h set means hour h is booked
+ *         short[31*24]  activity ids, indexed by day * 24 + hour
+ *   ..  name table: per activity a short byte length, then UTF-8 bytes
+ * </pre>
+ * Every slot has room for 31 days, so a month is found by arithmetic alone. Activity
+ * names are shared by all months of the room and decoded the first time one is needed.
+ */
+public class OccupancyFile {
+
+    static final int MAGIC = 0x41474F46;
+    static final short VERSION = 1;
+    static final int MAX_DAYS = 31;
+    static final int SLOT_BYTES = MAX_DAYS * Integer.BYTES + MAX_DAYS * OccupancyGrid.HOURS_PER_DAY * Short.BYTES;
+    private static final int HEADER_BYTES = 20;
+
+    private final ByteBuffer buffer;
+    private final int monthCount;
+    private final int firstMonth;
+    private final int activityCount;
+    private final int namesOffset;
+    private volatile String[] activityNames;
+
+    OccupancyFile(ByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not an occupancy file");
+        }
+        if (buffer.getShort(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported occupancy file version: " + buffer.getShort(4));
+        }
+        this.buffer = buffer;
+        this.monthCount = buffer.getShort(6);
+        this.firstMonth = buffer.getInt(8);
+        this.activityCount = buffer.getInt(12);
+        this.namesOffset = buffer.getInt(16);
+        if (monthCount < 0 || namesOffset != slotsOffset(monthCount) + monthCount * SLOT_BYTES
+                || namesOffset > buffer.capacity()) {
+            throw new IllegalArgumentException("Corrupt occupancy file header");
+        }
+    }
+
+    /**
+     * Maps a file written by {@link #write}; the mapping stays valid after the file is replaced
+     */
+    public static OccupancyFile map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new OccupancyFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes the given months, replacing the target file atomically
+     */
+    public static void write(SortedMap<YearMonth, OccupancyGrid> months, Path file) throws IOException {
+        write(months, null, file);
+    }
+
+    /**
+     * Writes the given months plus the months of previous they do not replace, replacing the
+     * target file atomically. Months kept from previous are copied slot by slot without
+     * decoding them; its name table is kept in order so their ids stay valid.
+     */
+    public static void write(SortedMap<YearMonth, OccupancyGrid> months, OccupancyFile previous, Path file)
+            throws IOException {
+        ByteBuffer encoded = encode(months, previous);
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (encoded.hasRemaining()) {
+                channel.write(encoded);
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static ByteBuffer encode(SortedMap<YearMonth, OccupancyGrid> months) {
+        return encode(months, null);
+    }
+
+    static ByteBuffer encode(SortedMap<YearMonth, OccupancyGrid> months, OccupancyFile previous) {
+        SortedSet<YearMonth> kept = new TreeSet<>();
+        if (previous != null) {
+            kept.addAll(previous.getMonths());
+            kept.removeAll(months.keySet());
+        }
+        SortedSet<YearMonth> all = new TreeSet<>(kept);
+        all.addAll(months.keySet());
+        int first = all.isEmpty() ? 0 : index(all.first());
+        int count = all.isEmpty() ? 0 : index(all.last()) - first + 1;
+        if (count > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many months for one occupancy file: " + count);
+        }
+
+        // Grids intern names separately, so ids are renumbered against one table for the whole file
+        Map<String, Integer> names = new LinkedHashMap<>();
+        if (previous != null) {
+            for (int id = 0; id < previous.activityCount; id++) {
+                names.putIfAbsent(previous.getActivityName(id), names.size());
+            }
+        }
+        for (OccupancyGrid grid : months.values()) {
+            for (int id = 0; id < grid.getActivityCount(); id++) {
+                names.putIfAbsent(grid.getActivityName(id), names.size());
+            }
+        }
+        List<byte[]> encodedNames = new ArrayList<>(names.size());
+        int namesBytes = 0;
+        for (String name : names.keySet()) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Activity name too long to store: " + name);
+            }
+            encodedNames.add(bytes);
+            namesBytes += Short.BYTES + bytes.length;
+        }
+
+        int namesOffset = slotsOffset(count) + count * SLOT_BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(namesOffset + namesBytes);
+        buffer.putInt(MAGIC).putShort(VERSION).putShort((short) count)
+            .putInt(first).putInt(names.size()).putInt(namesOffset);
+        for (YearMonth month : kept) {
+            int slot = index(month) - first;
+            buffer.put(HEADER_BYTES + slot, (byte) 1);
+            buffer.put(slotsOffset(count) + slot * SLOT_BYTES, previous.buffer,
+                       slotsOffset(previous.monthCount) + (index(month) - previous.firstMonth) * SLOT_BYTES, SLOT_BYTES);
+        }
+        for (Map.Entry<YearMonth, OccupancyGrid> entry : months.entrySet()) {
+            int slot = index(entry.getKey()) - first;
+            OccupancyGrid grid = entry.getValue();
+            if (grid.getDays() > MAX_DAYS) {
+                throw new IllegalArgumentException("Grid of " + entry.getKey() + " has more than " + MAX_DAYS + " days");
+            }
+            buffer.put(HEADER_BYTES + slot, (byte) 1);
+
+            int base = slotsOffset(count) + slot * SLOT_BYTES;
+            int idsBase = base + MAX_DAYS * Integer.BYTES;
+            int[] fileIds = new int[grid.getActivityCount()];
+            for (int id = 0; id < fileIds.length; id++) {
+                fileIds[id] = names.get(grid.getActivityName(id));
+            }
+            for (int day = 0; day < grid.getDays(); day++) {
+                int mask = grid.getMask(day);
+                buffer.putInt(base + day * Integer.BYTES, mask);
+                // Free hours keep id 0; readers check the mask first
+                for (int remaining = mask; remaining != 0; remaining &= remaining - 1) {
+                    int hour = Integer.numberOfTrailingZeros(remaining);
+                    buffer.putShort(idsBase + (day * OccupancyGrid.HOURS_PER_DAY + hour) * Short.BYTES,
+                                    (short) fileIds[grid.getActivityId(day, hour)]);
+                }
+            }
+        }
+        buffer.position(namesOffset);
+        for (byte[] name : encodedNames) {
+            buffer.putShort((short) name.length).put(name);
+        }
+        return buffer.flip();
+    }
+
+    private static int index(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    private static int slotsOffset(int monthCount) {
+        return (HEADER_BYTES + monthCount + 3) & ~3;
+    }
+
+    /**
+     * Months saved in this file, in order
+     */
+    public SortedSet<YearMonth> getMonths() {
+        SortedSet<YearMonth> months = new TreeSet<>();
+        for (int slot = 0; slot < monthCount; slot++) {
+            if (buffer.get(HEADER_BYTES + slot) != 0) {
+                months.add(YearMonth.of((firstMonth + slot) / 12, (firstMonth + slot) % 12 + 1));
+            }
+        }
+        return Collections.unmodifiableSortedSet(months);
+    }
+
+    /**
+     * Returns a read-only grid over the month's slot, or null if the month was not saved
+     */
+    public MappedOccupancyGrid getMonth(YearMonth month) {
+        int slot = index(month) - firstMonth;
+        if (slot < 0 || slot >= monthCount || buffer.get(HEADER_BYTES + slot) == 0) {
+            return null;
+        }
+        return new MappedOccupancyGrid(this, buffer, slotsOffset(monthCount) + slot * SLOT_BYTES, month.lengthOfMonth());
+    }
+
+    String getActivityName(int activityId) {
+        String[] names = activityNames;
+        if (names == null) {
+            names = decodeNames();
+            activityNames = names;
+        }
+        return names[activityId];
+    }
+
+    private String[] decodeNames() {
+        String[] names = new String[activityCount];
+        int offset = namesOffset;
+        for (int id = 0; id < activityCount; id++) {
+            int length = buffer.getShort(offset);
+            byte[] bytes = new byte[length];
+            buffer.get(offset + Short.BYTES, bytes);
+            names[id] = new String(bytes, StandardCharsets.UTF_8);
+            offset += Short.BYTES + length;
+        }
+        return names;
+    }
+}
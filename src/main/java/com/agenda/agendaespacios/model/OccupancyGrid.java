@@ -0,0 +1,285 @@
+package com.agenda.agendaespacios.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Compact occupancy storage for one room over a run of consecutive days.
+ *
+ * Each day is a 24-bit mask (bit h set means hour h is booked) plus a flat
+ * array of activity ids indexed by {@code day * 24 + hour}. Activity names are
+ * interned once per grid, so a booked hour costs two bytes instead of a boxed
+ * key, a map node and a String reference.
+ */
+public class OccupancyGrid {
+
+    public static final int HOURS_PER_DAY = 24;
+    public static final int FULL_DAY_MASK = (1 << HOURS_PER_DAY) - 1;
+
+    private final int days;
+    private final int[] masks;
+    private final short[] activityIds;
+    private final List<String> activityNames = new ArrayList<>();
+    private final Map<String, Short> activityIndex = new HashMap<>();
+    private boolean shared;
+
+    public OccupancyGrid(int days) {
+        if (days < 0) {
+            throw new IllegalArgumentException("Number of days cannot be negative: " + days);
+        }
+        this.days = days;
+        this.masks = new int[days];
+        this.activityIds = new short[days * HOURS_PER_DAY];
+    }
+
+    private OccupancyGrid(OccupancyGrid other) {
+        this.days = other.days;
+        this.masks = other.masks.clone();
+        this.activityIds = other.activityIds.clone();
+        this.activityNames.addAll(other.activityNames);
+        this.activityIndex.putAll(other.activityIndex);
+    }
+
+    /**
+     * A writable copy with the same bookings and activity ids
+     */
+    public OccupancyGrid copy() {
+        return new OccupancyGrid(this);
+    }
+
+    /**
+     * Makes the grid read-only so it can be handed to several owners; writers take a copy
+     */
+    OccupancyGrid share() {
+        shared = true;
+        return this;
+    }
+
+    public boolean isShared() {
+        return shared;
+    }
+
+    private void checkWritable() {
+        if (shared) {
+            throw new UnsupportedOperationException("Shared occupancy grid is read-only, write to a copy");
+        }
+    }
+
+    /**
+     * Builds the mask covering hours [startHour, endHour)
+     */
+    public static int hourMask(int startHour, int endHour) {
+        if (startHour < 0 || endHour > HOURS_PER_DAY || startHour >= endHour) {
+            return 0;
+        }
+        return (FULL_DAY_MASK >>> (HOURS_PER_DAY - (endHour - startHour))) << startHour;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public int getMask(int day) {
+        return masks[day];
+    }
+
+    public boolean isOccupied(int day, int hour) {
+        return hour >= 0 && hour < HOURS_PER_DAY && (masks[day] & (1 << hour)) != 0;
+    }
+
+    /**
+     * Returns the activity holding the given hour, or null if the hour is free
+     */
+    public String getActivity(int day, int hour) {
+        if (!isOccupied(day, hour)) {
+            return null;
+        }
+        return activityNames.get(activityIds[day * HOURS_PER_DAY + hour]);
+    }
+
+    /**
+     * Returns the id of the activity holding the given hour, or -1 if the hour is free
+     */
+    public int getActivityId(int day, int hour) {
+        return isOccupied(day, hour) ? activityIds[day * HOURS_PER_DAY + hour] : -1;
+    }
+
+    /**
+     * Returns the dense id of an activity name in this grid, registering it if needed
+     */
+    public int intern(String activity) {
+        Short id = activityIndex.get(activity);
+        if (id == null) {
+            checkWritable();
+            id = (short) activityNames.size();
+            activityNames.add(activity);
+            activityIndex.put(activity, id);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the id of an activity name already registered in this grid, or -1
+     */
+    public int indexOf(String activity) {
+        Short id = activityIndex.get(activity);
+        return id != null ? id : -1;
+    }
+
+    public String getActivityName(int activityId) {
+        return activityNames.get(activityId);
+    }
+
+    /**
+     * Number of activity names interned so far; ids run from 0 to this count - 1
+     */
+    public int getActivityCount() {
+        return activityNames.size();
+    }
+
+    /**
+     * Books a single hour, overwriting whatever held it before
+     */
+    public void mark(int day, int hour, String activity) {
+        markId(day, 1 << hour, intern(activity));
+    }
+
+    /**
+     * Books every hour set in the mask for the given day
+     */
+    public void markMask(int day, int hourMask, String activity) {
+        markId(day, hourMask, intern(activity));
+    }
+
+    void markId(int day, int hourMask, int activityId) {
+        checkWritable();
+        hourMask &= FULL_DAY_MASK;
+        masks[day] |= hourMask;
+        int base = day * HOURS_PER_DAY;
+        while (hourMask != 0) {
+            int hour = Integer.numberOfTrailingZeros(hourMask);
+            activityIds[base + hour] = (short) activityId;
+            hourMask &= hourMask - 1;
+        }
+    }
+
+    /**
+     * Books hourMask on every day set in dayMask (bit d is day d, so only the first 32 days
+     * can be addressed) without overwriting hours that are already taken.
+     *
+     * The taken hours of each selected day are stored in collisions[day]; the returned
+     * mask has a bit set for every day where that is non-zero.
+     */
+    int markDays(int dayMask, int hourMask, int activityId, int[] collisions) {
+        int collidingDays = 0;
+        for (int remaining = dayMask; remaining != 0; remaining &= remaining - 1) {
+            int day = Integer.numberOfTrailingZeros(remaining);
+            int taken = masks[day] & hourMask;
+            markId(day, hourMask & ~taken, activityId);
+            collisions[day] = taken;
+            if (taken != 0) {
+                collidingDays |= 1 << day;
+            }
+        }
+        return collidingDays;
+    }
+
+    /**
+     * Frees every hour of the days set in the mask
+     */
+    void clearDays(int dayMask) {
+        checkWritable();
+        for (int remaining = dayMask; remaining != 0; remaining &= remaining - 1) {
+            masks[Integer.numberOfTrailingZeros(remaining)] = 0;
+        }
+    }
+
+    /**
+     * Run-length encodes one day: consecutive hours held by the same activity become one run
+     */
+    public List<OccupancyRun> runs(int day) {
+        List<OccupancyRun> runs = new ArrayList<>();
+        int remaining = masks[day];
+        while (remaining != 0) {
+            int startHour = Integer.numberOfTrailingZeros(remaining);
+            int activityId = activityIds[day * HOURS_PER_DAY + startHour];
+            int endHour = startHour + 1;
+            while (endHour < HOURS_PER_DAY && (remaining & (1 << endHour)) != 0
+                    && activityIds[day * HOURS_PER_DAY + endHour] == activityId) {
+                endHour++;
+            }
+            runs.add(new OccupancyRun(startHour, endHour, activityNames.get(activityId)));
+            remaining &= ~hourMask(startHour, endHour);
+        }
+        return runs;
+    }
+
+    /**
+     * Read-only hour to activity view of one day, backed by the grid
+     */
+    public Map<Integer, String> dayView(int day) {
+        return new DayView(day);
+    }
+
+    private class DayView extends AbstractMap<Integer, String> {
+        private final int day;
+
+        DayView(int day) {
+            this.day = day;
+        }
+
+        @Override
+        public String get(Object key) {
+            return key instanceof Integer ? getActivity(day, (Integer) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Integer && isOccupied(day, (Integer) key);
+        }
+
+        @Override
+        public int size() {
+            return Integer.bitCount(masks[day]);
+        }
+
+        @Override
+        public Set<Map.Entry<Integer, String>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<Integer, String>> iterator() {
+                    return new Iterator<>() {
+                        private int remaining = masks[day];
+
+                        @Override
+                        public boolean hasNext() {
+                            return remaining != 0;
+                        }
+
+                        @Override
+                        public Map.Entry<Integer, String> next() {
+                            if (remaining == 0) {
+                                throw new NoSuchElementException();
+                            }
+                            int hour = Integer.numberOfTrailingZeros(remaining);
+                            remaining &= remaining - 1;
+                            return new SimpleImmutableEntry<>(hour, getActivity(day, hour));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return DayView.this.size();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.agenda.agendaespacios.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * A run of consecutive hours [startHour, endHour) held by one activity on one day.
+ * Serialized as a compact [start, end, activity] JSON array.
+ */
+@JsonFormat(shape = JsonFormat.Shape.ARRAY)
+@JsonPropertyOrder({"startHour", "endHour", "activity"})
+public class OccupancyRun {
+    private final int startHour;
+    private final int endHour;
+    private final String activity;
+    
+    public OccupancyRun(int startHour, int endHour, String activity) {
+        this.startHour = startHour;
+        this.endHour = endHour;
+        this.activity = activity;
+    }
+    
+    public int getStartHour() {
+        return startHour;
+    }
+    
+    public int getEndHour() {
+        return endHour;
+    }
+    
+    public String getActivity() {
+        return activity;
+    }
+    
+    @Override
+    public String toString() {
+        return startHour + "-" + endHour + " " + activity;
+    }
+}
@@ -0,0 +1,118 @@
+package com.agenda.agendaespacios.model;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opening-hours template shared by any number of rooms: the hours outside opening time
+ * are held by "Closed" on every day.
+ *
+ * A template is stored once as one closed-hour mask per weekday. The month grids built
+ * from it are cached here, marked shared, and handed to every room using the template;
+ * a room copies a month's grid only when it books something in that month.
+ */
+public class OpeningHours {
+
+    public static final String CLOSED = "Closed";
+
+    private final String name;
+    private final int[] closedMasks; // by weekday, 0 = Monday
+    private final Map<YearMonth, OccupancyGrid> months = new ConcurrentHashMap<>();
+
+    public OpeningHours(String name, int[] openMasks) {
+        if (openMasks.length != 7) {
+            throw new IllegalArgumentException("Opening hours need one mask per weekday: " + openMasks.length);
+        }
+        this.name = name;
+        this.closedMasks = new int[7];
+        for (int weekday = 0; weekday < 7; weekday++) {
+            closedMasks[weekday] = ~openMasks[weekday] & OccupancyGrid.FULL_DAY_MASK;
+        }
+    }
+
+    /**
+     * Open every day from openHour to closeHour
+     */
+    public static OpeningHours daily(String name, int openHour, int closeHour) {
+        int[] open = new int[7];
+        Arrays.fill(open, OccupancyGrid.hourMask(openHour, closeHour));
+        return new OpeningHours(name, open);
+    }
+
+    /**
+     * Parses groups of weekday codes and open hours separated by ';', e.g.
+     * "LMCJV 8-14_16-21; S 9-14". Days not listed are closed all day.
+     */
+    public static OpeningHours parse(String name, String spec) {
+        int[] open = new int[7];
+        for (String group : spec.split(";")) {
+            String[] parts = group.trim().split("\\s+");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid opening hours for " + name + ": '" + group.trim() +
+                                                   "'. Expected days and hours, e.g. LMCJV 8-21");
+            }
+            int hours = 0;
+            for (String range : parts[1].split("_")) {
+                String[] bounds = range.split("-");
+                int mask = bounds.length == 2 ? parseHourRange(bounds[0], bounds[1]) : 0;
+                if (mask == 0) {
+                    throw new IllegalArgumentException("Invalid hour range for " + name + ": " + range);
+                }
+                hours |= mask;
+            }
+            for (char code : parts[0].toCharArray()) {
+                int bit = Reservation.weekdayBit(code);
+                if (bit == 0) {
+                    throw new IllegalArgumentException("Invalid day in opening hours for " + name + ": " + code +
+                                                       ". Must be one of: LMCJVSG");
+                }
+                open[Integer.numberOfTrailingZeros(bit)] |= hours;
+            }
+        }
+        return new OpeningHours(name, open);
+    }
+
+    private static int parseHourRange(String start, String end) {
+        try {
+            return OccupancyGrid.hourMask(Integer.parseInt(start.trim()), Integer.parseInt(end.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Closed hours of a weekday (0 = Monday)
+     */
+    public int getClosedMask(int weekday) {
+        return closedMasks[weekday];
+    }
+
+    /**
+     * The shared, read-only grid of a month with only the closed hours booked
+     */
+    OccupancyGrid monthGrid(YearMonth month) {
+        return months.computeIfAbsent(month, ym -> {
+            OccupancyGrid grid = new OccupancyGrid(ym.lengthOfMonth());
+            apply(grid, ym, (int) ((1L << ym.lengthOfMonth()) - 1));
+            return grid.share();
+        });
+    }
+
+    /**
+     * Books the closed hours on the days of the month set in dayMask
+     */
+    void apply(OccupancyGrid grid, YearMonth month, int dayMask) {
+        int activityId = grid.intern(CLOSED);
+        int firstWeekday = month.atDay(1).getDayOfWeek().getValue() - 1;
+        for (int remaining = dayMask; remaining != 0; remaining &= remaining - 1) {
+            int day = Integer.numberOfTrailingZeros(remaining);
+            grid.markId(day, closedMasks[(firstWeekday + day) % 7], activityId);
+        }
+    }
+}
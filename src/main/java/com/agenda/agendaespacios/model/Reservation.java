@@ -14,6 +14,12 @@ public class Reservation {
     private String dayPattern; // e.g., "LMCJVSG" or "MTWTFSS"
     private List<TimeRange> timeRanges;
     private String errorMessage;
+    // Compiled once so agendas can apply the reservation with mask operations
+    private int weekdayMask; // bit 0 = Monday ... bit 6 = Sunday
+    private int hourMask;    // bit h = hour h-(h+1)
+    // Ids in the upload's NameDictionary, or -1 when the reservation was not read through one
+    private int activityId = -1;
+    private int roomId = -1;
     
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
     
@@ -60,6 +66,8 @@ public class Reservation {
             validateDayPattern(dayPattern);
         }
         
+        this.hourMask = toHourMask(this.timeRanges);
+        
         // Further validation for dates
         if (startDate != null && endDate != null && this.startDate != null && this.endDate != null) {
             if (this.startDate.isAfter(this.endDate)) {
@@ -69,21 +77,104 @@ public class Reservation {
         }
     }
     
+    /**
+     * Creates a reservation from values that were already parsed (e.g. by a streaming
+     * reader), so dates and time patterns are not formatted and parsed again
+     */
+    public Reservation(String activityName, String roomName, LocalDate startDate, LocalDate endDate, 
+                      String dayPattern, List<TimeRange> timeRanges) {
+        this.activityName = activityName;
+        this.roomName = roomName;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.dayPattern = dayPattern;
+        this.timeRanges = timeRanges != null ? timeRanges : new ArrayList<>();
+        
+        if (startDate == null || endDate == null) {
+            this.errorMessage = "Start and end dates are required";
+        }
+        
+        if (this.timeRanges.isEmpty()) {
+            this.errorMessage = (this.errorMessage != null ? this.errorMessage + "; " : "") + 
+                        "Invalid time pattern: no time ranges";
+        }
+        
+        if (dayPattern == null || dayPattern.trim().isEmpty()) {
+            this.errorMessage = (this.errorMessage != null ? this.errorMessage + "; " : "") + 
+                        "Day pattern cannot be empty";
+        } else {
+            validateDayPattern(dayPattern);
+        }
+        
+        this.hourMask = toHourMask(this.timeRanges);
+        
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            this.errorMessage = (this.errorMessage != null ? this.errorMessage + "; " : "") + 
+                        "Start date cannot be after end date";
+        }
+    }
+    
+    /**
+     * Creates a pre-parsed reservation whose activity and room are ids of a dictionary,
+     * sharing the dictionary's String for each name
+     */
+    public Reservation(NameDictionary names, int activityId, int roomId, LocalDate startDate, LocalDate endDate,
+                      String dayPattern, List<TimeRange> timeRanges) {
+        this(names.name(activityId), names.name(roomId), startDate, endDate, dayPattern, timeRanges);
+        this.activityId = activityId;
+        this.roomId = roomId;
+    }
+    
+    /**
+     * Copy of this reservation repeating on another day pattern; dates, time ranges and
+     * name ids are reused as they are
+     */
+    public Reservation withDayPattern(String dayPattern) {
+        Reservation copy = new Reservation(activityName, roomName, startDate, endDate, dayPattern, timeRanges);
+        copy.activityId = activityId;
+        copy.roomId = roomId;
+        return copy;
+    }
+    
     /**
      * Validates if the day pattern contains valid characters from Spanish day pattern (LMCJVSG)
+     * and compiles the valid ones into the weekday mask
      */
     private void validateDayPattern(String pattern) {
-        for (char c : pattern.toCharArray()) {
+        boolean reported = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
             // Check if the character is valid in Spanish format only
-            if (SPANISH_CAT_DAY_PATTERN.indexOf(c) == -1) {
+            int bit = weekdayBit(c);
+            if (bit != 0) {
+                weekdayMask |= bit;
+            } else if (!reported) {
                 this.errorMessage = (this.errorMessage != null ? this.errorMessage + "; " : "") + 
                             "Invalid day in pattern: " + c + ". Must be one of: " + 
                             SPANISH_CAT_DAY_PATTERN;
-                break;
+                reported = true;
             }
         }
     }
     
+    /**
+     * Bit of a day code in weekday masks (bit 0 = Monday), or 0 if the code is not one of LMCJVSG
+     */
+    public static int weekdayBit(char code) {
+        int weekday = SPANISH_CAT_DAY_PATTERN.indexOf(code);
+        return weekday >= 0 ? 1 << weekday : 0;
+    }
+    
+    private static int toHourMask(List<TimeRange> ranges) {
+        int mask = 0;
+        if (ranges != null) {
+            for (TimeRange range : ranges) {
+                mask |= OccupancyGrid.hourMask(range.getStartHour(), range.getEndHour());
+            }
+        }
+        return mask;
+    }
+    
     private List<TimeRange> parseTimePattern(String timePattern) {
         List<TimeRange> ranges = new ArrayList<>();
         if (timePattern == null || timePattern.isEmpty()) {
@@ -126,6 +217,27 @@ public class Reservation {
         return roomName;
     }
     
+    /**
+     * Dictionary id of the activity, or -1 if the reservation was not read through a dictionary
+     */
+    public int getActivityId() {
+        return activityId;
+    }
+    
+    /**
+     * Dictionary id of the room, or -1 if the reservation was not read through a dictionary
+     */
+    public int getRoomId() {
+        return roomId;
+    }
+    
+    /**
+     * Whether this is a "Closed" rule rather than an activity; compares ids when there are any
+     */
+    public boolean isClosed() {
+        return activityId >= 0 ? activityId == NameDictionary.CLOSED_ID : OpeningHours.CLOSED.equals(activityName);
+    }
+    
     public LocalDate getStartDate() {
         return startDate;
     }
@@ -146,6 +258,20 @@ public class Reservation {
         return errorMessage;
     }
     
+    /**
+     * Days of the week the reservation repeats on, bit 0 being Monday
+     */
+    public int getWeekdayMask() {
+        return weekdayMask;
+    }
+    
+    /**
+     * Hours booked on each matching day, bit h being the hour h-(h+1)
+     */
+    public int getHourMask() {
+        return hourMask;
+    }
+    
     public boolean isValid() {
         // Basic validation
         return errorMessage == null && 
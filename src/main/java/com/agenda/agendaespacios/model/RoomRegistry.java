@@ -0,0 +1,74 @@
+package com.agenda.agendaespacios.model;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rooms known before any reservation is read, grouped by building, each with the
+ * opening-hours template it follows. Rooms that only appear in reservations are not
+ * registered and have no closed hours.
+ */
+public class RoomRegistry {
+
+    /** Open 7-21 every day, the hours Sala1 and Sala2 have always had */
+    private static final OpeningHours DEFAULT_HOURS = OpeningHours.daily("default", 7, 21);
+
+    private final Map<String, OpeningHours> templates = new LinkedHashMap<>();
+    private final Map<String, String> buildings = new LinkedHashMap<>();    // room -> building
+    private final Map<String, OpeningHours> openingHours = new LinkedHashMap<>(); // room -> template
+
+    /**
+     * The built-in registry: Sala1 and Sala2 in building "main", open 7-21
+     */
+    public static RoomRegistry defaults() {
+        RoomRegistry registry = new RoomRegistry();
+        registry.addTemplate(DEFAULT_HOURS);
+        registry.addBuilding("main", DEFAULT_HOURS.getName(), List.of("Sala1", "Sala2"));
+        return registry;
+    }
+
+    public void addTemplate(OpeningHours template) {
+        templates.put(template.getName(), template);
+    }
+
+    /**
+     * Registers the rooms of a building under one of the templates added before
+     */
+    public void addBuilding(String building, String templateName, Collection<String> rooms) {
+        OpeningHours template = templates.get(templateName);
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown opening hours template '" + templateName +
+                                               "' for building " + building);
+        }
+        for (String room : rooms) {
+            String previous = buildings.put(room, building);
+            if (previous != null && !previous.equals(building)) {
+                throw new IllegalArgumentException("Room " + room + " is registered in buildings " +
+                                                   previous + " and " + building);
+            }
+            openingHours.put(room, template);
+        }
+    }
+
+    /**
+     * Registered rooms, in registration order
+     */
+    public Set<String> getRooms() {
+        return Collections.unmodifiableSet(openingHours.keySet());
+    }
+
+    /**
+     * Template of a room, or null if the room is not registered
+     */
+    public OpeningHours getOpeningHours(String room) {
+        return openingHours.get(room);
+    }
+
+    public String getBuilding(String room) {
+        return buildings.get(room);
+    }
+}
@@ -0,0 +1,125 @@
+package com.agenda.agendaespacios.service;
+
+import com.agenda.agendaespacios.model.Agenda;
+import com.agenda.agendaespacios.model.ConfigData;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One agenda computation submitted through {@link AgendaJobService}.
+ *
+ * Progress counters are updated by the worker thread while the job runs and can be
+ * polled from any thread; the finished agenda is kept until the job expires.
+ */
+public class AgendaJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+
+    private final String id;
+    private final Instant submittedAt;
+    private final AtomicInteger reservationsParsed = new AtomicInteger();
+    private final AtomicInteger reservationsApplied = new AtomicInteger();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile int totalReservations = -1;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+    private volatile ConfigData config;
+    private volatile Agenda agenda;
+
+    AgendaJob(String id, Instant submittedAt) {
+        this.id = id;
+        this.submittedAt = submittedAt;
+    }
+
+    void start(Instant now) {
+        startedAt = now;
+        status = Status.RUNNING;
+    }
+
+    void parsed() {
+        reservationsParsed.incrementAndGet();
+    }
+
+    void applied() {
+        reservationsApplied.incrementAndGet();
+    }
+
+    void parsingFinished(int total) {
+        totalReservations = total;
+    }
+
+    void succeed(ConfigData config, Agenda agenda, Instant now) {
+        this.config = config;
+        this.agenda = agenda;
+        finishedAt = now;
+        status = Status.SUCCEEDED;
+    }
+
+    void fail(String error, Instant now) {
+        this.error = error;
+        finishedAt = now;
+        status = Status.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isFinished() {
+        return status == Status.SUCCEEDED || status == Status.FAILED;
+    }
+
+    public int getReservationsParsed() {
+        return reservationsParsed.get();
+    }
+
+    public int getReservationsApplied() {
+        return reservationsApplied.get();
+    }
+
+    /**
+     * Number of valid reservations in the upload, or -1 while it is still being parsed
+     */
+    public int getTotalReservations() {
+        return totalReservations;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @JsonIgnore
+    public ConfigData getConfig() {
+        return config;
+    }
+
+    @JsonIgnore
+    public Agenda getAgenda() {
+        return agenda;
+    }
+}
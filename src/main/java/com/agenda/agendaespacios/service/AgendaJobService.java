@@ -0,0 +1,184 @@
+package com.agenda.agendaespacios.service;
+
+import com.agenda.agendaespacios.model.Agenda;
+import com.agenda.agendaespacios.model.ConfigData;
+import com.agenda.agendaespacios.model.Reservation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs agenda computations in the background for uploads too large to finish within
+ * an HTTP request.
+ *
+ * Jobs run on a fixed number of worker threads behind a bounded queue; once the queue
+ * is full, submit throws RejectedExecutionException so callers can ask clients to retry
+ * later. Finished jobs are kept for the retention period and then dropped.
+ */
+@Service
+public class AgendaJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgendaJobService.class);
+
+    private final DataLoader dataLoader;
+    private final AgendaProcessor agendaProcessor;
+    private final AgendaStore agendaStore;
+    private final ReservationDatabase reservationDatabase;
+    private final ThreadPoolExecutor executor;
+    private final Duration retention;
+    private final Clock clock;
+    private final Map<String, AgendaJob> jobs = new ConcurrentHashMap<>();
+
+    private final Timer queueWait;
+    private final Timer succeededLatency;
+    private final Timer failedLatency;
+    private final Counter rejected;
+
+    @Autowired
+    public AgendaJobService(DataLoader dataLoader, AgendaProcessor agendaProcessor, AgendaStore agendaStore,
+                            ReservationDatabase reservationDatabase, AgendaMetrics metrics,
+                            @Value("${agenda.jobs.threads:2}") int threads,
+                            @Value("${agenda.jobs.queue-capacity:16}") int queueCapacity,
+                            @Value("${agenda.jobs.retention:PT1H}") Duration retention) {
+        this(dataLoader, agendaProcessor, agendaStore, reservationDatabase, metrics, newExecutor(threads, queueCapacity), retention,
+             Clock.systemUTC());
+    }
+
+    AgendaJobService(DataLoader dataLoader, AgendaProcessor agendaProcessor, AgendaStore agendaStore,
+                     ReservationDatabase reservationDatabase, AgendaMetrics metrics,
+                     ThreadPoolExecutor executor, Duration retention, Clock clock) {
+        this.dataLoader = dataLoader;
+        this.agendaProcessor = agendaProcessor;
+        this.agendaStore = agendaStore;
+        this.reservationDatabase = reservationDatabase;
+        this.executor = executor;
+        this.retention = retention;
+        this.clock = clock;
+
+        MeterRegistry registry = metrics.getRegistry();
+        Gauge.builder("agenda.jobs.queue.depth", executor, e -> e.getQueue().size())
+            .description("Agenda jobs waiting for a worker")
+            .register(registry);
+        Gauge.builder("agenda.jobs.active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("Agenda jobs being computed")
+            .register(registry);
+        this.queueWait = Timer.builder("agenda.jobs.wait")
+            .description("Time agenda jobs spend queued before a worker picks them up")
+            .register(registry);
+        this.succeededLatency = Timer.builder("agenda.jobs.latency")
+            .description("Time from submitting an agenda job to its completion")
+            .tag("outcome", "succeeded")
+            .register(registry);
+        this.failedLatency = Timer.builder("agenda.jobs.latency")
+            .description("Time from submitting an agenda job to its completion")
+            .tag("outcome", "failed")
+            .register(registry);
+        this.rejected = Counter.builder("agenda.jobs.rejected")
+            .description("Agenda jobs refused because the queue was full")
+            .register(registry);
+    }
+
+    private static ThreadPoolExecutor newExecutor(int threads, int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "agenda-job-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Queues a job for the given file contents, which must already be copied out of the request
+     *
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public AgendaJob submit(byte[] configContent, byte[] reservationsContent) {
+        purgeExpired();
+        AgendaJob job = new AgendaJob(UUID.randomUUID().toString(), clock.instant());
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, configContent, reservationsContent));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            rejected.increment();
+            throw e;
+        }
+        logger.info("Queued agenda job {} ({} waiting)", job.getId(), executor.getQueue().size());
+        return job;
+    }
+
+    public AgendaJob get(String id) {
+        AgendaJob job = jobs.get(id);
+        if (job != null && isExpired(job)) {
+            jobs.remove(id);
+            return null;
+        }
+        return job;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    private void run(AgendaJob job, byte[] configContent, byte[] reservationsContent) {
+        job.start(clock.instant());
+        queueWait.record(Duration.between(job.getSubmittedAt(), job.getStartedAt()));
+        try {
+            ConfigData config = dataLoader.loadConfigBytes(configContent);
+            List<Reservation> reservations = new ArrayList<>();
+            dataLoader.loadReservationBytes(reservationsContent, reservation -> {
+                reservations.add(reservation);
+                job.parsed();
+            });
+            job.parsingFinished(reservations.size());
+
+            Agenda agenda = agendaProcessor.createAgenda(config, reservations, job::applied);
+            agendaStore.save(agenda);
+            reservationDatabase.ingest(config, reservations, agenda);
+            job.succeed(config, agenda, clock.instant());
+            succeededLatency.record(Duration.between(job.getSubmittedAt(), job.getFinishedAt()));
+            logger.info("Agenda job {} finished: {} reservations, {} conflicts",
+                       job.getId(), reservations.size(), agenda.getConflictCount());
+        } catch (Exception e) {
+            logger.error("Agenda job {} failed", job.getId(), e);
+            job.fail(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName(), clock.instant());
+            failedLatency.record(Duration.between(job.getSubmittedAt(), job.getFinishedAt()));
+        }
+    }
+
+    private boolean isExpired(AgendaJob job) {
+        return job.isFinished() && job.getFinishedAt().plus(retention).isBefore(clock.instant());
+    }
+
+    private void purgeExpired() {
+        jobs.values().removeIf(this::isExpired);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
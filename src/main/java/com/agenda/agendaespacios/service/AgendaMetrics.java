@@ -0,0 +1,114 @@
+package com.agenda.agendaespacios.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for every stage of the /procesar pipeline.
+ *
+ * Stage latencies share the agenda.stage timer, tagged by stage, so they can be
+ * compared side by side in Prometheus.
+ */
+@Component
+public class AgendaMetrics {
+
+    public static final String STAGE_CONFIG_PARSE = "config_parse";
+    public static final String STAGE_RESERVATION_PARSE = "reservation_parse";
+    public static final String STAGE_CLOSED_PASS = "closed_pass";
+    public static final String STAGE_PRIORITY_PASS = "priority_pass";
+    public static final String STAGE_REGULAR_PASS = "regular_pass";
+    public static final String STAGE_VIEW_MODEL = "view_model";
+    public static final String STAGE_RENDER = "render";
+
+    private final MeterRegistry registry;
+    private final Counter linesParsed;
+    private final Counter validReservations;
+    private final Counter invalidReservations;
+    private final Counter closedConflicts;
+    private final Counter priorityConflicts;
+    private final DistributionSummary parseThroughput;
+    private final DistributionSummary conflictsPerRequest;
+
+    /**
+     * Metrics that are recorded but not exported, for code built outside Spring
+     */
+    public AgendaMetrics() {
+        this(new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public AgendaMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.linesParsed = Counter.builder("agenda.lines.parsed")
+            .description("Lines read from reservation files")
+            .register(registry);
+        this.validReservations = Counter.builder("agenda.reservations")
+            .description("Reservations applied to an agenda")
+            .tag("result", "valid")
+            .register(registry);
+        this.invalidReservations = Counter.builder("agenda.reservations")
+            .description("Reservations applied to an agenda")
+            .tag("result", "invalid")
+            .register(registry);
+        this.closedConflicts = Counter.builder("agenda.closed.conflicts")
+            .description("Conflicts raised while applying Closed rules")
+            .register(registry);
+        this.priorityConflicts = Counter.builder("agenda.priority.conflicts")
+            .description("Conflicts raised while applying priority activities")
+            .register(registry);
+        this.parseThroughput = DistributionSummary.builder("agenda.parse.throughput")
+            .description("Reservation lines parsed per second, per upload")
+            .baseUnit("lines/s")
+            .register(registry);
+        this.conflictsPerRequest = DistributionSummary.builder("agenda.conflicts")
+            .description("Conflicts reported per agenda")
+            .register(registry);
+    }
+
+    public Timer stageTimer(String stage) {
+        return Timer.builder("agenda.stage")
+            .description("Time spent in each stage of agenda processing")
+            .tag("stage", stage)
+            .register(registry);
+    }
+
+    public void recordStage(String stage, long nanos) {
+        stageTimer(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordUpload(String file, long bytes) {
+        DistributionSummary.builder("agenda.upload.size")
+            .description("Size of uploaded files")
+            .baseUnit("bytes")
+            .tag("file", file)
+            .register(registry)
+            .record(bytes);
+    }
+
+    public void recordLinesParsed(int lines, long nanos) {
+        linesParsed.increment(lines);
+        if (nanos > 0) {
+            parseThroughput.record(lines * 1_000_000_000d / nanos);
+        }
+    }
+
+    public void recordReservations(int valid, int invalid, int closedConflictCount, int priorityConflictCount,
+                                   int conflicts) {
+        validReservations.increment(valid);
+        invalidReservations.increment(invalid);
+        closedConflicts.increment(closedConflictCount);
+        priorityConflicts.increment(priorityConflictCount);
+        conflictsPerRequest.record(conflicts);
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+}
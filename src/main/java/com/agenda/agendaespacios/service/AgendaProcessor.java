@@ -2,97 +2,254 @@ package com.agenda.agendaespacios.service;
 
 import com.agenda.agendaespacios.model.Agenda;
 import com.agenda.agendaespacios.model.ConfigData;
+import com.agenda.agendaespacios.model.OpeningHours;
 import com.agenda.agendaespacios.model.Reservation;
+import com.agenda.agendaespacios.model.RoomRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 @Service
 public class AgendaProcessor {
     
     private static final Logger logger = LoggerFactory.getLogger(AgendaProcessor.class);
     
+    /** Conflicts listed per agenda when not configured; the rest are only counted */
+    public static final int DEFAULT_CONFLICT_LIMIT = 1000;
+    
+    /** Reservations from which an agenda is built by room in parallel when not configured */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 20000;
+    
+    private final AgendaMetrics metrics;
+    private final int conflictLimit;
+    private final RoomRegistry roomRegistry;
+    // Activities applied right after "Closed" and before the rest, tier 1 first
+    private final Map<String, Integer> priorityTiers = new HashMap<>();
+    
+    // Builds with at least this many reservations apply them by room on the common fork-join pool
+    @Value("${agenda.build.parallel-threshold:" + DEFAULT_PARALLEL_THRESHOLD + "}")
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+    
+    public AgendaProcessor() {
+        this(new AgendaMetrics());
+    }
+    
+    public AgendaProcessor(AgendaMetrics metrics) {
+        this(metrics, DEFAULT_CONFLICT_LIMIT);
+    }
+    
+    public AgendaProcessor(AgendaMetrics metrics, int conflictLimit) {
+        this(metrics, conflictLimit, RoomRegistry.defaults());
+    }
+    
+    public AgendaProcessor(AgendaMetrics metrics, int conflictLimit, RoomRegistry roomRegistry) {
+        this(metrics, conflictLimit, roomRegistry, new String[0]);
+    }
+    
+    /**
+     * @param priorityActivities activities that take their slots before regular ones, highest
+     *                           priority first; "Closed" always goes before all of them
+     */
+    @Autowired
+    public AgendaProcessor(AgendaMetrics metrics,
+                           @Value("${agenda.conflicts.limit:" + DEFAULT_CONFLICT_LIMIT + "}") int conflictLimit,
+                           RoomRegistry roomRegistry,
+                           @Value("${agenda.priority.activities:}") String[] priorityActivities) {
+        this.metrics = metrics;
+        this.conflictLimit = conflictLimit;
+        this.roomRegistry = roomRegistry;
+        for (String activity : priorityActivities) {
+            String name = activity.trim();
+            if (!name.isEmpty() && !OpeningHours.CLOSED.equals(name)) {
+                priorityTiers.putIfAbsent(name, priorityTiers.size() + 1);
+            }
+        }
+    }
+    
     /**
      * Creates an agenda from the provided configuration and reservations
      */
     public Agenda createAgenda(ConfigData config, List<Reservation> reservations) {
+        return createAgenda(config, reservations, null);
+    }
+    
+    /**
+     * Creates an agenda, calling afterEach once every reservation has been handled (applied or failed).
+     *
+     * Reservations are split into priority tiers in one pass ("Closed", then the configured
+     * priority activities, then everything else) and each tier is applied in file order, so
+     * a reservation only conflicts with those of its own or a higher tier that came first.
+     * From agenda.build.parallel-threshold reservations on, each pass builds the rooms
+     * concurrently (see {@link Agenda#addReservations}) and afterEach may run on pool threads.
+     */
+    public Agenda createAgenda(ConfigData config, List<Reservation> reservations, Runnable afterEach) {
         
         // Create a new agenda with the given configuration
-        Agenda agenda = new Agenda(config);
+        Agenda agenda = new Agenda(config, roomRegistry);
+        agenda.setConflictLimit(conflictLimit);
         
         if (reservations == null || reservations.isEmpty()) {
             logger.warn("No reservations provided, returning empty agenda");
             return agenda;
         }
         
-        // Process each reservation
-        int validCount = 0;
-        int invalidCount = 0;
-        int closedConflicts = 0;
+        List<List<Reservation>> tiers = partitionByTier(reservations);
+        int regularTier = tiers.size() - 1;
+        boolean parallel = reservations.size() >= parallelThreshold;
+        Counts counts = new Counts();
         
-        // First, process all the "Closed" (closed) reservations
-        for (Reservation reservation : reservations) {
-            try {
-                if ("Closed".equals(reservation.getActivityName())) {
-                    processReservation(reservation, config, agenda);
-                    validCount++;
+        // Closed rules first, then the priority activities, then the regular ones
+        long passStart = System.nanoTime();
+        applyTiers(tiers.subList(0, 1), config, agenda, afterEach, parallel, counts);
+        int closedConflicts = agenda.getConflictCount();
+        metrics.recordStage(AgendaMetrics.STAGE_CLOSED_PASS, System.nanoTime() - passStart);
+        
+        int priorityConflicts = 0;
+        if (regularTier > 1) {
+            passStart = System.nanoTime();
+            applyTiers(tiers.subList(1, regularTier), config, agenda, afterEach, parallel, counts);
+            priorityConflicts = agenda.getConflictCount() - closedConflicts;
+            metrics.recordStage(AgendaMetrics.STAGE_PRIORITY_PASS, System.nanoTime() - passStart);
+        }
+        
+        passStart = System.nanoTime();
+        applyTiers(tiers.subList(regularTier, tiers.size()), config, agenda, afterEach, parallel, counts);
+        metrics.recordStage(AgendaMetrics.STAGE_REGULAR_PASS, System.nanoTime() - passStart);
+        metrics.recordReservations(counts.valid, counts.invalid, closedConflicts, priorityConflicts,
+                                   agenda.getConflictCount());
+        
+        logger.debug("Applied {} reservations ({} failed) in {} tiers{}, {} conflicts from Closed rules, {} from priority activities", 
+                    counts.valid, counts.invalid, tiers.size(), parallel ? " by room in parallel" : "",
+                    closedConflicts, priorityConflicts);
+        return agenda;
+    }
+    
+    /**
+     * Applies the tiers in order, one reservation at a time or, in parallel mode, with the
+     * rooms built concurrently
+     */
+    private void applyTiers(List<List<Reservation>> tiers, ConfigData config, Agenda agenda,
+                            Runnable afterEach, boolean parallel, Counts counts) {
+        if (!parallel) {
+            for (List<Reservation> tier : tiers) {
+                for (Reservation reservation : tier) {
+                    try {
+                        if (processReservation(reservation, config, agenda)) {
+                            counts.valid++;
+                        } else {
+                            counts.invalid++;
+                        }
+                    } catch (Exception e) {
+                        recordFailure(agenda, reservation, e, counts);
+                    }
+                    if (afterEach != null) {
+                        afterEach.run();
+                    }
                 }
-            } catch (Exception e) {
-                logger.error("Error processing closed reservation: " + reservation.getActivityName(), e);
-                agenda.getConflicts().add("Error processing closed reservation " + 
-                    reservation.getActivityName() + ": " + e.getMessage());
-                invalidCount++;
             }
+            return;
         }
         
-        // Then process all the regular activity reservations
-        for (Reservation reservation : reservations) {
-            try {
-                if (!"Closed".equals(reservation.getActivityName())) {
-                    processReservation(reservation, config, agenda);
-                    validCount++;
+        List<Reservation> prepared = new ArrayList<>();
+        for (List<Reservation> tier : tiers) {
+            for (Reservation reservation : tier) {
+                if (reservation.isValid()) {
+                    counts.valid++;
+                    prepared.add(translate(reservation, config));
+                } else {
+                    counts.invalid++;
+                    skipInvalid(reservation);
+                    if (afterEach != null) {
+                        afterEach.run();
+                    }
                 }
-            } catch (Exception e) {
-                logger.error("Error processing reservation: " + reservation.getActivityName(), e);
-                agenda.getConflicts().add("Error processing reservation " + 
-                    reservation.getActivityName() + ": " + e.getMessage());
-                invalidCount++;
             }
         }
-        return agenda;
+        agenda.addReservations(prepared, ForkJoinPool.commonPool(), (reservation, e) -> {
+            counts.valid--;
+            recordFailure(agenda, reservation, e, counts);
+        }, afterEach);
+    }
+    
+    private void recordFailure(Agenda agenda, Reservation reservation, Exception e, Counts counts) {
+        String kind = reservation.isClosed() ? "closed reservation" : "reservation";
+        logger.error("Error processing " + kind + ": " + reservation.getActivityName(), e);
+        agenda.getConflicts().add("Error processing " + kind + " " +
+            reservation.getActivityName() + ": " + e.getMessage());
+        counts.invalid++;
+    }
+    
+    /**
+     * Splits the reservations by tier, keeping file order within each: tier 0 is "Closed",
+     * then one tier per priority activity, and the last tier holds regular activities
+     */
+    private List<List<Reservation>> partitionByTier(List<Reservation> reservations) {
+        int regularTier = priorityTiers.size() + 1;
+        List<List<Reservation>> tiers = new ArrayList<>(regularTier + 1);
+        for (int tier = 0; tier <= regularTier; tier++) {
+            tiers.add(new ArrayList<>());
+        }
+        for (Reservation reservation : reservations) {
+            int tier;
+            if (reservation.isClosed()) {
+                tier = 0;
+            } else if (priorityTiers.isEmpty()) {
+                tier = regularTier;
+            } else {
+                tier = priorityTiers.getOrDefault(reservation.getActivityName(), regularTier);
+            }
+            tiers.get(tier).add(reservation);
+        }
+        return tiers;
     }
 
     /**
-     * Process a single reservation
+     * Process a single reservation; returns false if it was invalid and skipped
      */
-    private void processReservation(Reservation reservation, ConfigData config, Agenda agenda) {
+    private boolean processReservation(Reservation reservation, ConfigData config, Agenda agenda) {
         if (!reservation.isValid()) {
-            logger.warn("Skipping invalid reservation: {} - Error: {}", 
-                      reservation.getActivityName(), 
-                      reservation.getErrorMessage());
-            return;
+            skipInvalid(reservation);
+            return false;
         }
         
-        // Apply language translation to the day pattern if needed
+        // Add the reservation to the agenda
+        agenda.addReservation(translate(reservation, config));
+        return true;
+    }
+    
+    private void skipInvalid(Reservation reservation) {
+        logger.warn("Skipping invalid reservation: {} - Error: {}", 
+                  reservation.getActivityName(), 
+                  reservation.getErrorMessage());
+    }
+    
+    /**
+     * Applies language translation to the day pattern if needed; dates and hours are kept as parsed
+     */
+    private static Reservation translate(Reservation reservation, ConfigData config) {
         String translatedDayPattern = config.translateDayCodes(reservation.getDayPattern());
-        
-        // Create a new reservation with the translated day pattern if necessary
-        Reservation processedReservation = translatedDayPattern.equals(reservation.getDayPattern()) 
+        return translatedDayPattern.equals(reservation.getDayPattern()) 
             ? reservation 
-            : new Reservation(
-                reservation.getActivityName(),
-                reservation.getRoomName(),
-                reservation.getStartDate().format(java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy")),
-                reservation.getEndDate().format(java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy")),
-                translatedDayPattern,
-                String.join("_", reservation.getTimeRanges().stream()
-                    .map(range -> range.toString())
-                    .toArray(String[]::new))
-            );
-            
-        // Add the reservation to the agenda
-        agenda.addReservation(processedReservation);
+            : reservation.withDayPattern(translatedDayPattern);
+    }
+    
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+    
+    /**
+     * Reservations applied and failed across the passes of one build
+     */
+    private static class Counts {
+        int valid;
+        int invalid;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,171 @@
+package com.agenda.agendaespacios.service;
+
+import com.agenda.agendaespacios.model.AgendaViewModel;
+import com.agenda.agendaespacios.model.ConfigData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps recently built agendas keyed by a SHA-256 hash of both uploaded files, so
+ * re-uploading the same config and peticiones skips parsing and processing.
+ *
+ * Entries are evicted least-recently-used once maxEntries is reached, and expire
+ * after the configured time to live.
+ */
+@Service
+public class AgendaResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgendaResultCache.class);
+
+    private final int maxEntries;
+    private final Duration timeToLive;
+    private final Clock clock;
+    private final Map<String, CachedResult> entries;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    @Autowired
+    public AgendaResultCache(@Value("${agenda.cache.max-entries:32}") int maxEntries,
+                             @Value("${agenda.cache.ttl:PT10M}") Duration timeToLive,
+                             AgendaMetrics metrics) {
+        this(maxEntries, timeToLive, metrics, Clock.systemUTC());
+    }
+
+    public AgendaResultCache(int maxEntries, Duration timeToLive, AgendaMetrics metrics, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+                boolean evict = size() > AgendaResultCache.this.maxEntries;
+                if (evict) {
+                    evictions.increment();
+                }
+                return evict;
+            }
+        };
+
+        MeterRegistry registry = metrics.getRegistry();
+        this.hits = Counter.builder("agenda.cache.requests").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("agenda.cache.requests").tag("result", "miss").register(registry);
+        this.evictions = Counter.builder("agenda.cache.evictions").register(registry);
+        Gauge.builder("agenda.cache.size", this, AgendaResultCache::size).register(registry);
+    }
+
+    /**
+     * Hashes the contents of both files. Returns null if either cannot be read, which disables caching for the request.
+     */
+    public String keyFor(MultipartFile configFile, MultipartFile reservationsFile) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, configFile);
+            update(digest, reservationsFile);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            logger.warn("Could not hash uploaded files, result will not be cached: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static void update(MessageDigest digest, MultipartFile file) throws IOException {
+        // Length prefix keeps ("ab", "c") and ("a", "bc") apart
+        digest.update(ByteBuffer.allocate(Long.BYTES).putLong(file.getSize()).array());
+        byte[] buffer = new byte[8192];
+        try (InputStream in = file.getInputStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+    }
+
+    public synchronized CachedResult get(String key) {
+        if (key == null) {
+            return null;
+        }
+        CachedResult result = entries.get(key);
+        if (result != null && result.getCreatedAt().plus(timeToLive).isBefore(clock.instant())) {
+            entries.remove(key);
+            evictions.increment();
+            result = null;
+        }
+        if (result == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return result;
+    }
+
+    public synchronized void put(String key, ConfigData config, AgendaViewModel viewModel) {
+        if (key != null && maxEntries > 0) {
+            entries.put(key, new CachedResult(config, viewModel, clock.instant()));
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public double getHitCount() {
+        return hits.count();
+    }
+
+    public double getMissCount() {
+        return misses.count();
+    }
+
+    public double getEvictionCount() {
+        return evictions.count();
+    }
+
+    public static class CachedResult {
+        private final ConfigData config;
+        private final AgendaViewModel viewModel;
+        private final Instant createdAt;
+
+        public CachedResult(ConfigData config, AgendaViewModel viewModel, Instant createdAt) {
+            this.config = config;
+            this.viewModel = viewModel;
+            this.createdAt = createdAt;
+        }
+
+        public ConfigData getConfig() {
+            return config;
+        }
+
+        public AgendaViewModel getViewModel() {
+            return viewModel;
+        }
+
+        public Instant getCreatedAt() {
+            return createdAt;
+        }
+    }
+}
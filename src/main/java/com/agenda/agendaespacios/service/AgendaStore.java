@@ -0,0 +1,235 @@
+package com.agenda.agendaespacios.service;
+
+import com.agenda.agendaespacios.model.Agenda;
+import com.agenda.agendaespacios.model.MappedOccupancyGrid;
+import com.agenda.agendaespacios.model.OccupancyFile;
+import com.agenda.agendaespacios.model.OccupancyGrid;
+import com.agenda.agendaespacios.model.OccupancyRun;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the occupancy of computed agendas on disk so it survives restarts and can be
+ * queried without recomputing anything.
+ *
+ * Each room has one {@code <directory>/<room>.occ} file holding a fixed-size slot per
+ * month, in the layout described by {@link OccupancyFile}. Opening the store only lists
+ * the directory; a room's file is memory-mapped the first time it is read. Saving an
+ * agenda replaces the room-months it covers and copies the other months already stored
+ * as they are. Saves are serialized; reads never lock. Uploads are saved on a background
+ * writer thread behind a bounded queue, so a request never waits for the disk.
+ */
+@Service
+public class AgendaStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgendaStore.class);
+    private static final String EXTENSION = ".occ";
+    public static final int DEFAULT_QUEUE_CAPACITY = 4;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final Map<String, StoredRoom> rooms = new ConcurrentHashMap<>();
+    // One writer, so agendas are saved in the order they were computed
+    private final ThreadPoolExecutor writer;
+
+    public AgendaStore(boolean enabled, String directory) {
+        this(enabled, directory, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    @Autowired
+    public AgendaStore(@Value("${agenda.store.enabled:false}") boolean enabled,
+                       @Value("${agenda.store.directory:agenda-store}") String directory,
+                       @Value("${agenda.store.queue-capacity:" + DEFAULT_QUEUE_CAPACITY + "}") int queueCapacity) {
+        this(enabled, Paths.get(directory), queueCapacity);
+    }
+
+    /**
+     * An enabled store over the given directory, for code built outside Spring
+     */
+    public AgendaStore(Path directory) {
+        this(true, directory, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    AgendaStore(boolean enabled, Path directory, int queueCapacity) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.writer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            task -> {
+                Thread thread = new Thread(task, "agenda-store-writer");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PostConstruct
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    String room = URLDecoder.decode(name.substring(0, name.length() - EXTENSION.length()), StandardCharsets.UTF_8);
+                    rooms.put(room, new StoredRoom(file));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open agenda store at " + directory, e);
+        }
+        logger.info("Opened agenda store at {}: {} rooms in {} ms",
+                   directory, rooms.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+    }
+
+    /**
+     * Queues {@link #save} on the store's writer thread so the request that built the agenda
+     * does not wait for the disk. The agenda must not change afterwards. If the queue is full
+     * the agenda is not saved: the drop is logged and the future completes with false.
+     */
+    public Future<Boolean> saveInBackground(Agenda agenda) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(false);
+        }
+        try {
+            return writer.submit(() -> save(agenda));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Agenda store queue is full ({} waiting), not saving {} rooms",
+                       writer.getQueue().size(), agenda.getRoomSchedules().size());
+            return CompletableFuture.completedFuture(false);
+        }
+    }
+
+    /**
+     * Writes every room-month of the agenda's period, replacing what was stored for them.
+     * Months in which nothing was booked are stored as free.
+     *
+     * Returns false if the store is disabled or a file could not be written; the error is
+     * logged rather than thrown so a full disk does not fail the request that built the agenda.
+     */
+    public synchronized boolean save(Agenda agenda) {
+        if (!enabled) {
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+            for (Map.Entry<String, Agenda.RoomSchedule> entry : agenda.getRoomSchedules().entrySet()) {
+                String room = entry.getKey();
+                Agenda.RoomSchedule schedule = entry.getValue();
+                SortedMap<YearMonth, OccupancyGrid> months = new TreeMap<>();
+                for (YearMonth month = schedule.getYearMonth(); !month.isAfter(schedule.getEndMonth()); month = month.plusMonths(1)) {
+                    OccupancyGrid grid = schedule.getGrid(month);
+                    months.put(month, grid != null ? grid : new OccupancyGrid(month.lengthOfMonth()));
+                }
+
+                Path file = directory.resolve(URLEncoder.encode(room, StandardCharsets.UTF_8) + EXTENSION);
+                StoredRoom stored = rooms.get(room);
+                OccupancyFile.write(months, stored != null ? stored.file() : null, file);
+                rooms.put(room, new StoredRoom(file));
+            }
+        } catch (IOException | UncheckedIOException e) {
+            logger.error("Could not save agenda to {}", directory, e);
+            return false;
+        }
+        logger.info("Saved {} rooms to agenda store in {} ms",
+                   agenda.getRoomSchedules().size(), (System.nanoTime() - start) / 1_000_000);
+        return true;
+    }
+
+    public Set<String> getRooms() {
+        return Collections.unmodifiableSet(rooms.keySet());
+    }
+
+    /**
+     * Returns the stored grid of a room-month, or null if it was never saved
+     */
+    public MappedOccupancyGrid getGrid(String room, YearMonth month) {
+        StoredRoom stored = rooms.get(room);
+        return stored != null ? stored.file().getMonth(month) : null;
+    }
+
+    public boolean contains(String room, LocalDate date) {
+        return getGrid(room, YearMonth.from(date)) != null;
+    }
+
+    /**
+     * Returns the activity holding the given hour, or null if it is free or was never saved
+     */
+    public String getActivity(String room, LocalDate date, int hour) {
+        MappedOccupancyGrid grid = getGrid(room, YearMonth.from(date));
+        return grid != null ? grid.getActivity(date.getDayOfMonth() - 1, hour) : null;
+    }
+
+    public List<OccupancyRun> getRuns(String room, LocalDate date) {
+        MappedOccupancyGrid grid = getGrid(room, YearMonth.from(date));
+        return grid != null ? grid.runs(date.getDayOfMonth() - 1) : Collections.emptyList();
+    }
+
+    /**
+     * A room's file, mapped on first use
+     */
+    private static class StoredRoom {
+        private final Path path;
+        private volatile OccupancyFile file;
+
+        StoredRoom(Path path) {
+            this.path = path;
+        }
+
+        OccupancyFile file() {
+            OccupancyFile mapped = file;
+            if (mapped == null) {
+                try {
+                    mapped = OccupancyFile.map(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not map " + path, e);
+                }
+                file = mapped;
+            }
+            return mapped;
+        }
+    }
+}
@@ -4,29 +4,70 @@ import com.agenda.agendaespacios.model.ConfigData;
 import com.agenda.agendaespacios.model.Reservation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 @Service
 public class DataLoader {
 
     private static final Logger logger = LoggerFactory.getLogger(DataLoader.class);
     
+    // Uploads at least this large are parsed in parallel chunks
+    @Value("${agenda.parser.parallel-threshold-bytes:4194304}")
+    private long parallelThresholdBytes = 4L * 1024 * 1024;
+    
+    @Value("${agenda.parser.chunk-size-bytes:1048576}")
+    private int chunkSizeBytes = 1024 * 1024;
+    
+    private final AgendaMetrics metrics;
+    
+    public DataLoader() {
+        this(new AgendaMetrics());
+    }
+    
+    @Autowired
+    public DataLoader(AgendaMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
     public ConfigData loadConfig(MultipartFile configFile) throws IOException {
         if (configFile == null || configFile.isEmpty()) {
             logger.error("Config file is empty or null");
             throw new IllegalArgumentException("Config file is required");
         }
         
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(configFile.getInputStream(), StandardCharsets.UTF_8))) {
+        return loadConfig(configFile.getInputStream(), configFile.getSize());
+    }
+    
+    /**
+     * Same as {@link #loadConfig(MultipartFile)} for an upload already copied into memory
+     */
+    public ConfigData loadConfigBytes(byte[] configContent) throws IOException {
+        if (configContent == null || configContent.length == 0) {
+            logger.error("Config file is empty or null");
+            throw new IllegalArgumentException("Config file is required");
+        }
+        
+        return loadConfig(new ByteArrayInputStream(configContent), configContent.length);
+    }
+    
+    private ConfigData loadConfig(InputStream configStream, long size) throws IOException {
+        metrics.recordUpload("config", size);
+        long start = System.nanoTime();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(configStream, StandardCharsets.UTF_8))) {
             // Read year and month
             String dateLine = reader.readLine();
             
@@ -43,13 +84,16 @@ public class DataLoader {
             
             String[] dateParts = dateLine.trim().split("\\s+");
             
-            if (dateParts.length != 2) {
+            // Either a single month "YYYY MM" or a period "YYYY MM YYYY MM"
+            if (dateParts.length != 2 && dateParts.length != 4) {
                 logger.error("Invalid date format in config file: '{}'", dateLine);
                 throw new IllegalArgumentException("Date format must be 'YYYY MM'");
             }
             
             int year = Integer.parseInt(dateParts[0]);
             int month = Integer.parseInt(dateParts[1]);
+            int endYear = dateParts.length == 4 ? Integer.parseInt(dateParts[2]) : year;
+            int endMonth = dateParts.length == 4 ? Integer.parseInt(dateParts[3]) : month;
             
             // Read source and target languages
             String langLine = reader.readLine();
@@ -72,7 +116,7 @@ public class DataLoader {
                 throw new IllegalArgumentException("Language format must be 'SOURCE TARGET'");
             }
             
-            ConfigData config = new ConfigData(year, month, langParts[0], langParts[1]);
+            ConfigData config = ConfigData.forPeriod(year, month, endYear, endMonth, langParts[0], langParts[1]);
             return config;
         } catch (NumberFormatException e) {
             logger.error("Error parsing year/month in config file", e);
@@ -80,67 +124,85 @@ public class DataLoader {
         } catch (Exception e) {
             logger.error("Error loading config file", e);
             throw new IllegalArgumentException("Error processing config file: " + e.getMessage());
+        } finally {
+            metrics.recordStage(AgendaMetrics.STAGE_CONFIG_PARSE, System.nanoTime() - start);
         }
     }
     
     public List<Reservation> loadReservations(MultipartFile reservationsFile) throws IOException {
+        List<Reservation> reservations = new ArrayList<>();
+        loadReservations(reservationsFile, reservations::add);
+        return reservations;
+    }
+    
+    /**
+     * Streams the reservations file, handing each valid reservation to the consumer as
+     * soon as its line is parsed. Returns the number of valid reservations delivered.
+     */
+    public int loadReservations(MultipartFile reservationsFile, Consumer<Reservation> consumer) throws IOException {
         if (reservationsFile == null || reservationsFile.isEmpty()) {
             logger.error("Reservations file is empty or null");
             throw new IllegalArgumentException("Reservations file is required");
         }
         
-        List<Reservation> reservations = new ArrayList<>();
-        int lineNumber = 0;
-        int validReservations = 0;
-        int invalidReservations = 0;
+        metrics.recordUpload("peticiones", reservationsFile.getSize());
+        if (reservationsFile.getSize() >= parallelThresholdBytes) {
+            return loadReservationsInParallel(reservationsFile.getBytes(), consumer);
+        }
+        return loadReservationsSequentially(reservationsFile.getInputStream(), consumer);
+    }
+    
+    /**
+     * Same as {@link #loadReservations(MultipartFile, Consumer)} for an upload already copied into memory
+     */
+    public int loadReservationBytes(byte[] reservationsContent, Consumer<Reservation> consumer) throws IOException {
+        if (reservationsContent == null || reservationsContent.length == 0) {
+            logger.error("Reservations file is empty or null");
+            throw new IllegalArgumentException("Reservations file is required");
+        }
         
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(reservationsFile.getInputStream(), StandardCharsets.UTF_8))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                lineNumber++;
-                if (line.trim().isEmpty()) {
-                    continue;
-                }
-                
-                String[] parts = line.trim().split("\\s+");
-                
-                if (parts.length >= 6) {
-                    try {
-                        String activityName = parts[0];
-                        String roomName = parts[1];
-                        String startDate = parts[2];
-                        String endDate = parts[3];
-                        String dayPattern = parts[4];
-                        String timePattern = parts[5];
-                        
-                        Reservation reservation = new Reservation(
-                            activityName, roomName, startDate, endDate, dayPattern, timePattern);
-                        
-                        if (reservation.isValid()) {
-                            reservations.add(reservation);
-                            validReservations++;
-                        } else {
-                            invalidReservations++;
-                            logger.warn("Invalid reservation at line {}: '{}', Error: {}", 
-                                      lineNumber, line, reservation.getErrorMessage());
-                        }
-                    } catch (DateTimeParseException e) {
-                        invalidReservations++;
-                        logger.error("Error parsing date in reservation at line {}: {}", lineNumber, e.getMessage());
-                        // Continue processing other lines
-                    } catch (Exception e) {
-                        invalidReservations++;
-                        logger.error("Error parsing reservation at line {}: {}", lineNumber, e.getMessage());
-                        // Continue processing other lines
-                    }
-                } else {
-                    invalidReservations++;
-                    logger.warn("Invalid format at line {}, expected at least 6 parts but got {}: '{}'",
-                               lineNumber, parts.length, line);
-                }
-            }
+        metrics.recordUpload("peticiones", reservationsContent.length);
+        if (reservationsContent.length >= parallelThresholdBytes) {
+            return loadReservationsInParallel(reservationsContent, consumer);
+        }
+        return loadReservationsSequentially(new ByteArrayInputStream(reservationsContent), consumer);
+    }
+    
+    private int loadReservationsSequentially(InputStream reservationsStream, Consumer<Reservation> consumer) throws IOException {
+        long start = System.nanoTime();
+        ReservationParser parser = new ReservationParser(consumer);
+        try (InputStream in = reservationsStream) {
+            parser.parse(in);
         }
+        recordParse(parser.getLineCount(), System.nanoTime() - start);
         
-        return reservations;
+        logger.debug("Parsed {} lines: {} valid and {} invalid reservations", 
+                    parser.getLineCount(), parser.getValidCount(), parser.getInvalidCount());
+        return parser.getValidCount();
+    }
+    
+    private int loadReservationsInParallel(byte[] reservationsContent, Consumer<Reservation> consumer) {
+        long start = System.nanoTime();
+        ParallelReservationParser parser = new ParallelReservationParser(ForkJoinPool.commonPool(), chunkSizeBytes);
+        List<Reservation> reservations = parser.parse(reservationsContent);
+        recordParse(parser.getLineCount(), System.nanoTime() - start);
+        reservations.forEach(consumer);
+        
+        logger.debug("Parsed {} lines in parallel chunks: {} valid and {} invalid reservations", 
+                    parser.getLineCount(), parser.getValidCount(), parser.getInvalidCount());
+        return parser.getValidCount();
+    }
+    
+    private void recordParse(int lines, long nanos) {
+        metrics.recordStage(AgendaMetrics.STAGE_RESERVATION_PARSE, nanos);
+        metrics.recordLinesParsed(lines, nanos);
+    }
+    
+    public void setParallelThresholdBytes(long parallelThresholdBytes) {
+        this.parallelThresholdBytes = parallelThresholdBytes;
+    }
+    
+    public void setChunkSizeBytes(int chunkSizeBytes) {
+        this.chunkSizeBytes = chunkSizeBytes;
     }
 }
@@ -0,0 +1,192 @@
+package com.agenda.agendaespacios.service;
+
+import com.agenda.agendaespacios.model.Agenda;
+import com.agenda.agendaespacios.model.FreeSlotPage;
+import com.agenda.agendaespacios.model.FreeSlotQuery;
+import com.agenda.agendaespacios.model.OccupancyGrid;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Finds free windows of a given length in a computed agenda.
+ *
+ * Every searched day is a single 24-bit mask test: the free hours inside the window are
+ * {@code ~mask & window}, and each run of at least duration free hours is one match.
+ * Matches are ranked tightest fit first (runs barely longer than needed come before
+ * wide-open days, so large gaps stay available), then by date, start hour and room.
+ * Only the matches up to the requested page are kept, packed into sortable longs.
+ */
+@Service
+public class FreeSlotSearch {
+
+    // Ranking key layout, most significant first: fit (5 bits), day (16), start hour (5), room (24)
+    private static final int FIT_SHIFT = 48;
+    private static final int DAY_SHIFT = 32;
+    private static final int HOUR_SHIFT = 24;
+    private static final int ROOM_MASK = (1 << 24) - 1;
+    private static final int MAX_DAYS = 1 << 16;
+
+    public FreeSlotPage search(Agenda agenda, FreeSlotQuery query) {
+        query.validate();
+        int duration = query.getDuration();
+        int window = query.getWindowMask();
+        int weekdays = query.getWeekdayMask();
+
+        List<String> rooms;
+        if (query.getRooms() == null || query.getRooms().isEmpty()) {
+            rooms = new ArrayList<>(agenda.getRoomSchedules().keySet());
+            Collections.sort(rooms);
+        } else {
+            rooms = new ArrayList<>(new TreeSet<>(query.getRooms()));
+            rooms.retainAll(agenda.getRoomSchedules().keySet());
+        }
+        if (rooms.size() > ROOM_MASK) {
+            throw new IllegalArgumentException("Too many rooms to search: " + rooms.size());
+        }
+
+        // Dates are parsed once; each room is then clamped to its own period
+        LocalDate from = query.fromOr(LocalDate.MIN);
+        LocalDate to = query.toOr(LocalDate.MAX);
+        Agenda.RoomSchedule[] schedules = new Agenda.RoomSchedule[rooms.size()];
+        LocalDate[] firsts = new LocalDate[rooms.size()];
+        LocalDate[] lasts = new LocalDate[rooms.size()];
+        LocalDate origin = null;
+        for (int roomIndex = 0; roomIndex < rooms.size(); roomIndex++) {
+            Agenda.RoomSchedule schedule = agenda.getRoomSchedules().get(rooms.get(roomIndex));
+            schedules[roomIndex] = schedule;
+            LocalDate periodStart = schedule.getYearMonth().atDay(1);
+            LocalDate periodEnd = schedule.getEndMonth().atEndOfMonth();
+            firsts[roomIndex] = from.isBefore(periodStart) ? periodStart : from;
+            lasts[roomIndex] = to.isAfter(periodEnd) ? periodEnd : to;
+            // Day numbers in the keys count from the earliest date any room can match
+            origin = origin == null || firsts[roomIndex].isBefore(origin) ? firsts[roomIndex] : origin;
+        }
+
+        long keep = (long) (query.getPage() + 1) * query.getSize();
+        SmallestKeys best = new SmallestKeys((int) Math.min(keep, Integer.MAX_VALUE - 8));
+        int total = 0;
+        for (int roomIndex = 0; roomIndex < rooms.size(); roomIndex++) {
+            Agenda.RoomSchedule schedule = schedules[roomIndex];
+            LocalDate first = firsts[roomIndex];
+            LocalDate last = lasts[roomIndex];
+            if (first.isAfter(last)) {
+                continue;
+            }
+            if (last.toEpochDay() - origin.toEpochDay() >= MAX_DAYS) {
+                throw new IllegalArgumentException("Search range is too long: " + first + " to " + last);
+            }
+
+            YearMonth firstMonth = YearMonth.from(first);
+            YearMonth lastMonth = YearMonth.from(last);
+            for (YearMonth month = firstMonth; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+                LocalDate monthStart = month.atDay(1);
+                int firstDay = month.equals(firstMonth) ? first.getDayOfMonth() - 1 : 0;
+                int lastDay = month.equals(lastMonth) ? last.getDayOfMonth() - 1 : month.lengthOfMonth() - 1;
+                int dayMask = Agenda.RoomSchedule.matchingDays(weekdays, monthStart.getDayOfWeek().getValue() - 1,
+                                                               firstDay, lastDay);
+                if (dayMask == 0) {
+                    continue;
+                }
+                OccupancyGrid grid = schedule.getGrid(month);
+                long monthOffset = monthStart.toEpochDay() - origin.toEpochDay();
+
+                for (int remaining = dayMask; remaining != 0; remaining &= remaining - 1) {
+                    int day = Integer.numberOfTrailingZeros(remaining);
+                    int free = ~(grid != null ? grid.getMask(day) : 0) & window;
+                    // A run starts at every free hour whose previous hour is not free
+                    for (int starts = free & ~(free << 1); starts != 0; starts &= starts - 1) {
+                        int start = Integer.numberOfTrailingZeros(starts);
+                        int length = Integer.numberOfTrailingZeros(~(free >>> start));
+                        if (length >= duration) {
+                            total++;
+                            best.offer((long) (length - duration) << FIT_SHIFT | (monthOffset + day) << DAY_SHIFT
+                                       | (long) start << HOUR_SHIFT | roomIndex);
+                        }
+                    }
+                }
+            }
+        }
+
+        long[] ranked = best.sorted();
+        List<FreeSlotPage.Match> matches = new ArrayList<>();
+        for (long i = (long) query.getPage() * query.getSize(); i < ranked.length; i++) {
+            long key = ranked[(int) i];
+            int length = (int) (key >>> FIT_SHIFT) + duration;
+            LocalDate date = origin.plusDays((key >>> DAY_SHIFT) & (MAX_DAYS - 1));
+            int start = (int) (key >>> HOUR_SHIFT) & 0x1F;
+            matches.add(new FreeSlotPage.Match(rooms.get((int) key & ROOM_MASK), date, start, start + duration, start + length));
+        }
+        return new FreeSlotPage(query.getPage(), query.getSize(), total, matches);
+    }
+
+    /**
+     * Keeps the smallest keys offered, up to a capacity, in a max-heap so the worst kept key
+     * is the one replaced. The array grows on demand, so a large page number costs nothing
+     * until there are that many matches.
+     */
+    private static final class SmallestKeys {
+        private final int capacity;
+        private long[] heap = new long[16];
+        private int size;
+
+        SmallestKeys(int capacity) {
+            this.capacity = capacity;
+        }
+
+        void offer(long key) {
+            if (size < capacity) {
+                if (size == heap.length) {
+                    heap = Arrays.copyOf(heap, (int) Math.min((long) heap.length * 2, capacity));
+                }
+                heap[size] = key;
+                siftUp(size++);
+            } else if (key < heap[0]) {
+                heap[0] = key;
+                siftDown(0);
+            }
+        }
+
+        long[] sorted() {
+            long[] keys = Arrays.copyOf(heap, size);
+            Arrays.sort(keys);
+            return keys;
+        }
+
+        private void siftUp(int index) {
+            long key = heap[index];
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (heap[parent] >= key) {
+                    break;
+                }
+                heap[index] = heap[parent];
+                index = parent;
+            }
+            heap[index] = key;
+        }
+
+        private void siftDown(int index) {
+            long key = heap[index];
+            int half = size >>> 1;
+            while (index < half) {
+                int child = 2 * index + 1;
+                if (child + 1 < size && heap[child + 1] > heap[child]) {
+                    child++;
+                }
+                if (key >= heap[child]) {
+                    break;
+                }
+                heap[index] = heap[child];
+                index = child;
+            }
+            heap[index] = key;
+        }
+    }
+}
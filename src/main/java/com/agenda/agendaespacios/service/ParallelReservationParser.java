@@ -0,0 +1,151 @@
+package com.agenda.agendaespacios.service;
+
+import com.agenda.agendaespacios.model.NameDictionary;
+import com.agenda.agendaespacios.model.Reservation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Parses an in-memory reservations file on several cores.
+ *
+ * The input is cut into chunks that end on line terminators. A first parallel pass
+ * counts the lines of every chunk so each one knows its starting line number; a
+ * second pass parses the chunks with one {@link ReservationParser} each, all sharing
+ * one {@link NameDictionary} so a name gets the same id in every chunk; once a name is
+ * registered the chunks look it up without locking. Results are
+ * concatenated in chunk order, so the output is the same as a sequential parse and
+ * warnings keep their original line numbers.
+ */
+public class ParallelReservationParser {
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    private int lineCount;
+    private int validCount;
+    private int invalidCount;
+
+    public ParallelReservationParser(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Parses every line of the data and returns the valid reservations in file order
+     */
+    public List<Reservation> parse(byte[] data) {
+        int[] bounds = chunkBounds(data);
+        int chunks = bounds.length - 1;
+
+        int[] lineOffsets = new int[chunks];
+        int[] chunkLines = invoke(() -> IntStream.range(0, chunks).parallel()
+            .map(c -> countLines(data, bounds[c], bounds[c + 1]))
+            .toArray());
+        for (int c = 1; c < chunks; c++) {
+            lineOffsets[c] = lineOffsets[c - 1] + chunkLines[c - 1];
+        }
+
+        NameDictionary names = new NameDictionary();
+        List<ChunkResult> results = invoke(() -> IntStream.range(0, chunks).parallel()
+            .mapToObj(c -> parseChunk(data, bounds[c], bounds[c + 1], lineOffsets[c], names))
+            .toList());
+
+        List<Reservation> reservations = new ArrayList<>();
+        for (ChunkResult result : results) {
+            reservations.addAll(result.reservations);
+            lineCount = Math.max(lineCount, result.lastLine);
+            validCount += result.validCount;
+            invalidCount += result.invalidCount;
+        }
+        return reservations;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public int getValidCount() {
+        return validCount;
+    }
+
+    public int getInvalidCount() {
+        return invalidCount;
+    }
+
+    /**
+     * Splits the data into ranges of roughly chunkSize bytes, each ending right after a line terminator
+     */
+    int[] chunkBounds(byte[] data) {
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+        int position = 0;
+        while (position < data.length) {
+            int next = Math.min(data.length, position + chunkSize);
+            while (next < data.length && data[next - 1] != '\n' && data[next - 1] != '\r') {
+                next++;
+            }
+            // Never separate the two halves of a \r\n terminator
+            if (next < data.length && data[next - 1] == '\r' && data[next] == '\n') {
+                next++;
+            }
+            bounds.add(next);
+            position = next;
+        }
+        return bounds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Counts terminated lines the same way ReservationParser does (\n, \r and \r\n)
+     */
+    static int countLines(byte[] data, int from, int to) {
+        int lines = 0;
+        for (int i = from; i < to; i++) {
+            byte b = data[i];
+            if (b == '\n') {
+                lines++;
+            } else if (b == '\r') {
+                lines++;
+                if (i + 1 < to && data[i + 1] == '\n') {
+                    i++;
+                }
+            }
+        }
+        return lines;
+    }
+
+    private static ChunkResult parseChunk(byte[] data, int from, int to, int lineOffset, NameDictionary names) {
+        ChunkResult result = new ChunkResult();
+        ReservationParser parser = new ReservationParser(result.reservations::add, lineOffset, names);
+        parser.parse(data, from, to);
+        result.lastLine = parser.getLineCount();
+        result.validCount = parser.getValidCount();
+        result.invalidCount = parser.getInvalidCount();
+        return result;
+    }
+
+    private <T> T invoke(Callable<T> task) {
+        try {
+            return pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while parsing reservations", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error parsing reservations: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static class ChunkResult {
+        private final List<Reservation> reservations = new ArrayList<>();
+        private int lastLine;
+        private int validCount;
+        private int invalidCount;
+    }
+}
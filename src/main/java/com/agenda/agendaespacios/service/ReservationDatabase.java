@@ -0,0 +1,300 @@
+package com.agenda.agendaespacios.service;
+
+import com.agenda.agendaespacios.model.Agenda;
+import com.agenda.agendaespacios.model.ConfigData;
+import com.agenda.agendaespacios.model.OccupancyGrid;
+import com.agenda.agendaespacios.model.Reservation;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional JDBC backend that keeps uploaded reservations and the hour slots they
+ * ended up holding, so availability can be answered with indexed lookups instead of
+ * rebuilding the agenda.
+ *
+ * Slots are taken from the agenda computed for the upload, so they follow the same
+ * priority and conflict rules (and the fixed Closed hours) as the rendered agenda.
+ * The slot table's primary key is (room, slot_date, slot_hour). Ingesting an upload
+ * replaces the slots of its rooms for its period in one transaction. Uploads are
+ * stored on a background writer thread, so the slots of a new upload show up in queries
+ * shortly after its agenda is returned. The writer's queue is bounded, since every queued
+ * upload holds its agenda; uploads that find it full are logged and not stored.
+ */
+@Service
+public class ReservationDatabase {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationDatabase.class);
+    private static final int BATCH_SIZE = 1000;
+    public static final int DEFAULT_QUEUE_CAPACITY = 4;
+
+    private final boolean enabled;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transaction;
+    // One writer, so uploads are stored in the order they were computed
+    private final ThreadPoolExecutor writer;
+
+    public ReservationDatabase(DataSource dataSource, boolean enabled) {
+        this(dataSource, enabled, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    @Autowired
+    public ReservationDatabase(DataSource dataSource, @Value("${agenda.db.enabled:false}") boolean enabled,
+                               @Value("${agenda.db.queue-capacity:" + DEFAULT_QUEUE_CAPACITY + "}") int queueCapacity) {
+        this.enabled = enabled;
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.writer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            task -> {
+                Thread thread = new Thread(task, "reservation-db-writer");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PostConstruct
+    public void createSchema() {
+        if (!enabled) {
+            return;
+        }
+        jdbc.execute("CREATE TABLE IF NOT EXISTS reservation ("
+            + "id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+            + "activity VARCHAR(255) NOT NULL, "
+            + "room VARCHAR(255) NOT NULL, "
+            + "start_date DATE NOT NULL, "
+            + "end_date DATE NOT NULL, "
+            + "weekday_mask INT NOT NULL, "
+            + "hour_mask INT NOT NULL)");
+        jdbc.execute("CREATE INDEX IF NOT EXISTS reservation_room_dates ON reservation (room, start_date, end_date)");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS slot ("
+            + "room VARCHAR(255) NOT NULL, "
+            + "slot_date DATE NOT NULL, "
+            + "slot_hour TINYINT NOT NULL, "
+            + "activity VARCHAR(255) NOT NULL, "
+            + "PRIMARY KEY (room, slot_date, slot_hour))");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+    }
+
+    /**
+     * Queues {@link #ingest} on the database writer thread so the request that built the
+     * agenda does not wait for the inserts. The agenda must not change afterwards. If the
+     * queue is full the upload is not stored: the drop is logged and the future completes
+     * with -1.
+     */
+    public Future<Integer> ingestInBackground(ConfigData config, List<Reservation> reservations, Agenda agenda) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(-1);
+        }
+        try {
+            return writer.submit(() -> ingest(config, reservations, agenda));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Reservation database queue is full ({} waiting), not storing {} reservations for {}",
+                       writer.getQueue().size(), reservations.size(), config.getPeriodDisplay());
+            return CompletableFuture.completedFuture(-1);
+        }
+    }
+
+    /**
+     * Stores an upload: its valid reservations and the hours each room holds in the computed
+     * agenda. Reservations and slots previously stored for the same rooms and period are
+     * replaced. Returns the number of slots written, or -1 if the backend is disabled or the
+     * write failed; database errors are logged rather than thrown so they do not fail the
+     * request that built the agenda.
+     */
+    public int ingest(ConfigData config, List<Reservation> reservations, Agenda agenda) {
+        if (!enabled) {
+            return -1;
+        }
+        try {
+            return write(config, reservations, agenda);
+        } catch (DataAccessException e) {
+            logger.error("Could not store reservations for {}", config.getPeriodDisplay(), e);
+            return -1;
+        }
+    }
+
+    private int write(ConfigData config, List<Reservation> reservations, Agenda agenda) {
+        long start = System.nanoTime();
+        Date periodStart = Date.valueOf(config.getStartPeriod().atDay(1));
+        Date periodEnd = Date.valueOf(config.getEndPeriod().atEndOfMonth());
+
+        Integer written = transaction.execute(status -> {
+            // Drop what an earlier upload stored for these rooms: slots in the period, reservations overlapping it
+            List<Object[]> rooms = new ArrayList<>();
+            for (String room : agenda.getRoomSchedules().keySet()) {
+                rooms.add(new Object[] {room, periodStart, periodEnd});
+            }
+            jdbc.batchUpdate("DELETE FROM slot WHERE room = ? AND slot_date BETWEEN ? AND ?", rooms);
+            jdbc.batchUpdate("DELETE FROM reservation WHERE room = ? AND end_date >= ? AND start_date <= ?", rooms);
+
+            List<Object[]> reservationRows = new ArrayList<>(reservations.size());
+            for (Reservation reservation : reservations) {
+                if (reservation.isValid()) {
+                    reservationRows.add(new Object[] {reservation.getActivityName(), reservation.getRoomName(),
+                        Date.valueOf(reservation.getStartDate()), Date.valueOf(reservation.getEndDate()),
+                        reservation.getWeekdayMask(), reservation.getHourMask()});
+                }
+            }
+            insertInBatches("INSERT INTO reservation (activity, room, start_date, end_date, weekday_mask, hour_mask) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", reservationRows);
+
+            return insertSlots(agenda);
+        });
+        logger.info("Stored {} reservations and {} slots in {} ms",
+                   reservations.size(), written, (System.nanoTime() - start) / 1_000_000);
+        return written != null ? written : 0;
+    }
+
+    private int insertSlots(Agenda agenda) {
+        String sql = "INSERT INTO slot (room, slot_date, slot_hour, activity) VALUES (?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        int written = 0;
+        for (Map.Entry<String, Agenda.RoomSchedule> entry : agenda.getRoomSchedules().entrySet()) {
+            Agenda.RoomSchedule schedule = entry.getValue();
+            for (YearMonth month = schedule.getYearMonth(); !month.isAfter(schedule.getEndMonth()); month = month.plusMonths(1)) {
+                OccupancyGrid grid = schedule.getGrid(month);
+                if (grid == null) {
+                    continue;
+                }
+                for (int day = 0; day < grid.getDays(); day++) {
+                    Date date = Date.valueOf(month.atDay(day + 1));
+                    for (int remaining = grid.getMask(day); remaining != 0; remaining &= remaining - 1) {
+                        int hour = Integer.numberOfTrailingZeros(remaining);
+                        batch.add(new Object[] {entry.getKey(), date, hour, grid.getActivity(day, hour)});
+                        if (batch.size() == BATCH_SIZE) {
+                            written += insertInBatches(sql, batch);
+                            batch.clear();
+                        }
+                    }
+                }
+            }
+        }
+        return written + insertInBatches(sql, batch);
+    }
+
+    private int insertInBatches(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbc.batchUpdate(sql, rows, BATCH_SIZE, (statement, row) -> {
+                for (int i = 0; i < row.length; i++) {
+                    statement.setObject(i + 1, row[i]);
+                }
+            });
+        }
+        return rows.size();
+    }
+
+    /**
+     * Returns the activity holding a room on the given date and hour, or null if it is free
+     * or nothing was stored for it
+     */
+    public String findHolder(String room, LocalDate date, int hour) {
+        checkEnabled();
+        List<String> holders = jdbc.queryForList(
+            "SELECT activity FROM slot WHERE room = ? AND slot_date = ? AND slot_hour = ?",
+            String.class, room, Date.valueOf(date), hour);
+        return holders.isEmpty() ? null : holders.get(0);
+    }
+
+    /**
+     * Free runs of hours in [startHour, endHour) on every date from first to last, both included.
+     * Only stored rooms and periods are meaningful: dates never ingested come back as free.
+     */
+    public List<FreeSlot> findFreeSlots(String room, LocalDate first, LocalDate last, int startHour, int endHour) {
+        checkEnabled();
+        if (first.isAfter(last)) {
+            return List.of();
+        }
+        int window = OccupancyGrid.hourMask(startHour, endHour);
+        int days = (int) (last.toEpochDay() - first.toEpochDay()) + 1;
+        int[] taken = new int[days];
+        jdbc.query("SELECT slot_date, slot_hour FROM slot WHERE room = ? AND slot_date BETWEEN ? AND ? "
+            + "AND slot_hour >= ? AND slot_hour < ?",
+            row -> {
+                int day = (int) (row.getDate(1).toLocalDate().toEpochDay() - first.toEpochDay());
+                taken[day] |= 1 << row.getInt(2);
+            },
+            room, Date.valueOf(first), Date.valueOf(last), startHour, endHour);
+
+        List<FreeSlot> free = new ArrayList<>();
+        for (int day = 0; day < days; day++) {
+            int remaining = window & ~taken[day];
+            while (remaining != 0) {
+                int from = Integer.numberOfTrailingZeros(remaining);
+                int to = Integer.numberOfTrailingZeros(~(remaining >>> from)) + from;
+                free.add(new FreeSlot(first.plusDays(day), from, to));
+                remaining &= ~OccupancyGrid.hourMask(from, to);
+            }
+        }
+        return free;
+    }
+
+    private void checkEnabled() {
+        if (!enabled) {
+            throw new IllegalStateException("Reservation database is disabled (agenda.db.enabled=false)");
+        }
+    }
+
+    /**
+     * A run of free hours [startHour, endHour) on one date
+     */
+    public static class FreeSlot {
+        private final LocalDate date;
+        private final int startHour;
+        private final int endHour;
+
+        public FreeSlot(LocalDate date, int startHour, int endHour) {
+            this.date = date;
+            this.startHour = startHour;
+            this.endHour = endHour;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public int getStartHour() {
+            return startHour;
+        }
+
+        public int getEndHour() {
+            return endHour;
+        }
+
+        @Override
+        public String toString() {
+            return date + " " + startHour + "-" + endHour;
+        }
+    }
+}
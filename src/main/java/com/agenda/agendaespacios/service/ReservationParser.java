@@ -0,0 +1,298 @@
+package com.agenda.agendaespacios.service;
+
+import com.agenda.agendaespacios.model.NameDictionary;
+import com.agenda.agendaespacios.model.Reservation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streaming parser for reservation request files.
+ *
+ * Lines are tokenized straight from a reusable byte buffer; dates (dd/MM/yyyy) and
+ * time patterns (H-H_H-H) are decoded by hand from the bytes, and activity and room
+ * names are looked up in a {@link NameDictionary}, so a well-formed line only allocates
+ * the day pattern String and a name repeated on many lines is decoded once. Malformed lines fall back to the
+ * String based Reservation constructor to get the usual error messages. Valid
+ * reservations are pushed to a consumer as soon as their line is read, so memory
+ * stays flat however large the input is.
+ */
+public class ReservationParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationParser.class);
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int FIELD_COUNT = 6;
+
+    private final Consumer<Reservation> sink;
+    private final NameDictionary names;
+    private final int[] tokens = new int[FIELD_COUNT * 2];
+
+    private int lineNumber;
+    private int validCount;
+    private int invalidCount;
+
+    public ReservationParser(Consumer<Reservation> sink) {
+        this(sink, 0);
+    }
+
+    /**
+     * @param firstLineOffset number of lines that precede the parsed input, used for log line numbers
+     */
+    public ReservationParser(Consumer<Reservation> sink, int firstLineOffset) {
+        this(sink, firstLineOffset, new NameDictionary());
+    }
+
+    /**
+     * @param names dictionary the activity and room names are registered in, possibly shared with other parsers
+     */
+    public ReservationParser(Consumer<Reservation> sink, int firstLineOffset, NameDictionary names) {
+        this.sink = sink;
+        this.lineNumber = firstLineOffset;
+        this.names = names;
+    }
+
+    /**
+     * Parses the whole stream, pushing every valid reservation to the sink
+     */
+    public void parse(InputStream in) throws IOException {
+        byte[] buf = new byte[DEFAULT_BUFFER_SIZE];
+        int len = 0;
+        int scanFrom = 0;
+        boolean skipLineFeed = false;
+
+        int read;
+        while ((read = in.read(buf, len, buf.length - len)) != -1) {
+            len += read;
+            int lineStart = 0;
+
+            for (int i = scanFrom; i < len; i++) {
+                byte b = buf[i];
+                if (b == '\n' && skipLineFeed) {
+                    // Second half of a \r\n terminator
+                    lineStart = i + 1;
+                    skipLineFeed = false;
+                    continue;
+                }
+                skipLineFeed = false;
+                if (b == '\n' || b == '\r') {
+                    parseLine(buf, lineStart, i);
+                    lineStart = i + 1;
+                    skipLineFeed = b == '\r';
+                }
+            }
+
+            // Keep the unfinished line at the start of the buffer, growing it for very long lines
+            len -= lineStart;
+            System.arraycopy(buf, lineStart, buf, 0, len);
+            scanFrom = len;
+            if (len == buf.length) {
+                buf = Arrays.copyOf(buf, buf.length * 2);
+            }
+        }
+
+        if (len > 0) {
+            parseLine(buf, 0, len);
+        }
+    }
+
+    /**
+     * Parses the lines in data[from, to). The range must start at the beginning of a line.
+     */
+    public void parse(byte[] data, int from, int to) {
+        int lineStart = from;
+        for (int i = from; i < to; i++) {
+            byte b = data[i];
+            if (b == '\n' || b == '\r') {
+                parseLine(data, lineStart, i);
+                if (b == '\r' && i + 1 < to && data[i + 1] == '\n') {
+                    i++;
+                }
+                lineStart = i + 1;
+            }
+        }
+        if (lineStart < to) {
+            parseLine(data, lineStart, to);
+        }
+    }
+
+    public int getLineCount() {
+        return lineNumber;
+    }
+
+    public int getValidCount() {
+        return validCount;
+    }
+
+    public int getInvalidCount() {
+        return invalidCount;
+    }
+
+    private void parseLine(byte[] buf, int start, int end) {
+        lineNumber++;
+
+        int parts = tokenize(buf, start, end);
+        if (parts == 0) {
+            return;
+        }
+
+        if (parts < FIELD_COUNT) {
+            invalidCount++;
+            logger.warn("Invalid format at line {}, expected at least 6 parts but got {}: '{}'",
+                       lineNumber, parts, text(buf, start, end));
+            return;
+        }
+
+        try {
+            Reservation reservation = buildReservation(buf);
+
+            if (reservation.isValid()) {
+                validCount++;
+                sink.accept(reservation);
+            } else {
+                invalidCount++;
+                logger.warn("Invalid reservation at line {}: '{}', Error: {}",
+                          lineNumber, text(buf, start, end), reservation.getErrorMessage());
+            }
+        } catch (Exception e) {
+            invalidCount++;
+            logger.error("Error parsing reservation at line {}: {}", lineNumber, e.getMessage());
+        }
+    }
+
+    private Reservation buildReservation(byte[] buf) {
+        LocalDate startDate = parseDate(buf, tokens[4], tokens[5]);
+        LocalDate endDate = parseDate(buf, tokens[6], tokens[7]);
+        List<Reservation.TimeRange> timeRanges = parseTimeRanges(buf, tokens[10], tokens[11]);
+
+        if (startDate == null || endDate == null || timeRanges == null) {
+            // Slow path: let Reservation parse the raw fields and describe what is wrong
+            return new Reservation(token(buf, 0), token(buf, 1), token(buf, 2),
+                                   token(buf, 3), token(buf, 4), token(buf, 5));
+        }
+
+        return new Reservation(names, nameId(buf, 0), nameId(buf, 1), startDate, endDate, token(buf, 4), timeRanges);
+    }
+
+    /**
+     * Records the bounds of the first six whitespace separated tokens and returns
+     * how many tokens the line has (counting stops at six)
+     */
+    private int tokenize(byte[] buf, int start, int end) {
+        int count = 0;
+        int i = start;
+        while (i < end && count < FIELD_COUNT) {
+            while (i < end && isWhitespace(buf[i])) {
+                i++;
+            }
+            if (i == end) {
+                break;
+            }
+            int tokenStart = i;
+            while (i < end && !isWhitespace(buf[i])) {
+                i++;
+            }
+            tokens[count * 2] = tokenStart;
+            tokens[count * 2 + 1] = i;
+            count++;
+        }
+        return count;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        // Same set String.trim() strips; UTF-8 continuation bytes are negative and never match
+        return b >= 0 && b <= ' ';
+    }
+
+    private String token(byte[] buf, int index) {
+        return text(buf, tokens[index * 2], tokens[index * 2 + 1]);
+    }
+
+    private int nameId(byte[] buf, int index) {
+        return names.id(buf, tokens[index * 2], tokens[index * 2 + 1]);
+    }
+
+    private static String text(byte[] buf, int start, int end) {
+        return new String(buf, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes a strict dd/MM/yyyy date, or returns null if the bytes need the slow path
+     */
+    static LocalDate parseDate(byte[] buf, int start, int end) {
+        if (end - start != 10 || buf[start + 2] != '/' || buf[start + 5] != '/') {
+            return null;
+        }
+        int day = digits(buf, start, start + 2);
+        int month = digits(buf, start + 3, start + 5);
+        int year = digits(buf, start + 6, start + 10);
+        if (day < 1 || month < 1 || month > 12 || year < 1) {
+            return null;
+        }
+        // Out of range days are left to DateTimeFormatter, which clamps them to the month end
+        if (day > 28 && day > YearMonth.of(year, month).lengthOfMonth()) {
+            return null;
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    /**
+     * Decodes an H-H_H-H time pattern, or returns null if any range is malformed
+     */
+    static List<Reservation.TimeRange> parseTimeRanges(byte[] buf, int start, int end) {
+        List<Reservation.TimeRange> ranges = new ArrayList<>(2);
+        int i = start;
+        while (i < end) {
+            int dash = indexOf(buf, i, end, (byte) '-');
+            if (dash < 0) {
+                return null;
+            }
+            int rangeEnd = indexOf(buf, dash + 1, end, (byte) '_');
+            if (rangeEnd < 0) {
+                rangeEnd = end;
+            }
+            int startHour = hour(buf, i, dash);
+            int endHour = hour(buf, dash + 1, rangeEnd);
+            if (startHour < 0 || startHour > 23 || endHour < 1 || endHour > 24 || startHour >= endHour) {
+                return null;
+            }
+            ranges.add(new Reservation.TimeRange(startHour, endHour));
+            i = rangeEnd + 1;
+        }
+        return ranges.isEmpty() || buf[end - 1] == '_' ? null : ranges;
+    }
+
+    private static int hour(byte[] buf, int start, int end) {
+        return end - start >= 1 && end - start <= 2 ? digits(buf, start, end) : -1;
+    }
+
+    private static int digits(byte[] buf, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buf[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int indexOf(byte[] buf, int start, int end, byte target) {
+        for (int i = start; i < end; i++) {
+            if (buf[i] == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
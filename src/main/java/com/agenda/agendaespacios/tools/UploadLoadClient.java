@@ -0,0 +1,184 @@
+package com.agenda.agendaespacios.tools;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Posts the same config and peticiones files to /procesar from many clients at once
+ * and reports throughput and latency percentiles.
+ *
+ * Used to compare the platform-thread Tomcat pool against the "virtual" Spring profile:
+ * start the app once per mode, then run
+ * {@code java ... UploadLoadClient --config=config.txt --peticiones=peticiones.txt --concurrency=400 --requests=4000}
+ */
+public class UploadLoadClient {
+
+    private static final String BOUNDARY = "----agendaUploadBoundary";
+
+    private final HttpClient client;
+    private final URI target;
+    private final byte[] body;
+
+    public UploadLoadClient(URI target, byte[] config, byte[] reservations) {
+        this.client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        this.target = target;
+        this.body = multipartBody(config, reservations);
+    }
+
+    /**
+     * Sends requests uploads from concurrency client threads and summarizes their latencies
+     */
+    public Result run(int concurrency, int requests) throws InterruptedException {
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        AtomicInteger remaining = new AtomicInteger(requests);
+        AtomicInteger failures = new AtomicInteger();
+        List<Future<List<Long>>> workers = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (int c = 0; c < concurrency; c++) {
+            workers.add(clients.submit(() -> {
+                List<Long> latencies = new ArrayList<>();
+                while (remaining.getAndDecrement() > 0) {
+                    long sent = System.nanoTime();
+                    if (!send()) {
+                        failures.incrementAndGet();
+                    }
+                    latencies.add(System.nanoTime() - sent);
+                }
+                return latencies;
+            }));
+        }
+
+        List<Long> latencies = new ArrayList<>(requests);
+        for (Future<List<Long>> worker : workers) {
+            try {
+                latencies.addAll(worker.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Client thread failed: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        clients.shutdown();
+        return new Result(latencies, failures.get(), elapsed);
+    }
+
+    private boolean send() {
+        HttpRequest request = HttpRequest.newBuilder(target)
+            .timeout(Duration.ofMinutes(2))
+            .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+            .build();
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    static byte[] multipartBody(byte[] config, byte[] reservations) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(config.length + reservations.length + 512);
+        writePart(out, "configFile", "config.txt", config);
+        writePart(out, "peticionesFile", "peticiones.txt", reservations);
+        out.writeBytes(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        return out.toByteArray();
+    }
+
+    private static void writePart(ByteArrayOutputStream out, String name, String fileName, byte[] content) {
+        String header = "--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + fileName + "\"\r\n"
+            + "Content-Type: text/plain\r\n\r\n";
+        out.writeBytes(header.getBytes(StandardCharsets.US_ASCII));
+        out.writeBytes(content);
+        out.writeBytes("\r\n".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String url = "http://localhost:8080/procesar";
+        Path config = Paths.get("config.txt");
+        Path reservations = Paths.get("peticiones.txt");
+        int concurrency = 200;
+        int requests = 2000;
+
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            if (option.length != 2) {
+                throw new IllegalArgumentException("Options must look like --name=value: " + arg);
+            }
+            String value = option[1];
+            switch (option[0]) {
+                case "url": url = value; break;
+                case "config": config = Paths.get(value); break;
+                case "peticiones": reservations = Paths.get(value); break;
+                case "concurrency": concurrency = Integer.parseInt(value); break;
+                case "requests": requests = Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Unknown option: " + option[0]);
+            }
+        }
+
+        UploadLoadClient loadClient = new UploadLoadClient(URI.create(url),
+            Files.readAllBytes(config), Files.readAllBytes(reservations));
+        // One untimed round warms up the server
+        loadClient.run(Math.min(concurrency, 20), Math.min(requests, 100));
+        Result result = loadClient.run(concurrency, requests);
+        System.out.println(result);
+    }
+
+    /**
+     * Outcome of one load run
+     */
+    public static class Result {
+        private final List<Long> latencies;
+        private final int failures;
+        private final long elapsedNanos;
+
+        Result(List<Long> latencies, int failures, long elapsedNanos) {
+            this.latencies = new ArrayList<>(latencies);
+            Collections.sort(this.latencies);
+            this.failures = failures;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public double getThroughput() {
+            return latencies.size() * 1_000_000_000d / elapsedNanos;
+        }
+
+        public double getPercentileMillis(double percentile) {
+            if (latencies.isEmpty()) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100 * latencies.size()) - 1;
+            return latencies.get(Math.max(0, index)) / 1_000_000d;
+        }
+
+        public int getFailures() {
+            return failures;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("requests=%d failures=%d throughput=%.1f req/s p50=%.1f ms p99=%.1f ms",
+                latencies.size(), failures, getThroughput(), getPercentileMillis(50), getPercentileMillis(99));
+        }
+    }
+}
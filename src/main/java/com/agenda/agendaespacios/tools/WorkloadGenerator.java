@@ -0,0 +1,324 @@
+package com.agenda.agendaespacios.tools;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates synthetic config and peticiones files in the format DataLoader reads.
+ *
+ * Every knob (room count, date span, day pattern density, time ranges per line,
+ * conflict rate, Closed ratio and malformed line ratio) is set on {@link Settings};
+ * the same settings and seed always produce byte-identical output, so benchmark
+ * runs compare like for like.
+ *
+ * Command line: {@code java ... WorkloadGenerator --reservations=100000 --rooms=50 --seed=7 --out=target/workload}
+ */
+public class WorkloadGenerator {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final String DAY_CODES = "LMCJVSG";
+    private static final int FIRST_HOUR = 7;
+    private static final int LAST_HOUR = 21;
+
+    private final Settings settings;
+
+    public WorkloadGenerator(Settings settings) {
+        this.settings = settings;
+    }
+
+    public void writeConfig(Writer out) throws IOException {
+        YearMonth start = settings.getStartMonth();
+        YearMonth end = start.plusMonths(Math.max(1, settings.getMonths()) - 1);
+        out.write(String.format("%d %02d", start.getYear(), start.getMonthValue()));
+        if (!end.equals(start)) {
+            out.write(String.format(" %d %02d", end.getYear(), end.getMonthValue()));
+        }
+        out.write("\n" + settings.getSourceLanguage() + " " + settings.getTargetLanguage() + "\n");
+    }
+
+    /**
+     * Writes settings.getReservations() lines, each either a reservation or a malformed line
+     */
+    public void writeReservations(Writer out) throws IOException {
+        Random random = new Random(settings.getSeed());
+        LocalDate periodStart = settings.getStartMonth().atDay(1);
+        int periodDays = (int) (settings.getStartMonth().plusMonths(Math.max(1, settings.getMonths()) - 1)
+            .atEndOfMonth().toEpochDay() - periodStart.toEpochDay()) + 1;
+        Map<Integer, String> lastLineByRoom = new HashMap<>();
+
+        for (int i = 0; i < settings.getReservations(); i++) {
+            int room = 1 + random.nextInt(Math.max(1, settings.getRooms()));
+
+            if (random.nextDouble() < settings.getMalformedRatio()) {
+                out.write(malformedLine(random, room));
+                out.write('\n');
+                continue;
+            }
+
+            String previous = lastLineByRoom.get(room);
+            if (previous != null && random.nextDouble() < settings.getConflictRate()) {
+                // Same room, dates, days and hours as an earlier line: a guaranteed conflict
+                out.write("Activity" + random.nextInt(settings.getActivities()) + previous);
+                out.write('\n');
+                continue;
+            }
+
+            String activity = random.nextDouble() < settings.getClosedRatio()
+                ? "Closed" : "Activity" + random.nextInt(settings.getActivities());
+
+            int startOffset = random.nextInt(periodDays);
+            int length = 1 + random.nextInt(Math.max(1, Math.min(settings.getMaxSpanDays(), periodDays - startOffset)));
+            LocalDate startDate = periodStart.plusDays(startOffset);
+            LocalDate endDate = startDate.plusDays(length - 1);
+
+            String rest = " Sala" + room
+                + " " + startDate.format(DATE_FORMATTER)
+                + " " + endDate.format(DATE_FORMATTER)
+                + " " + dayPattern(random)
+                + " " + timePattern(random);
+            lastLineByRoom.put(room, rest);
+            out.write(activity + rest);
+            out.write('\n');
+        }
+    }
+
+    private String dayPattern(Random random) {
+        StringBuilder pattern = new StringBuilder(7);
+        for (int d = 0; d < DAY_CODES.length(); d++) {
+            if (random.nextDouble() < settings.getDayPatternDensity()) {
+                pattern.append(DAY_CODES.charAt(d));
+            }
+        }
+        if (pattern.length() == 0) {
+            pattern.append(DAY_CODES.charAt(random.nextInt(DAY_CODES.length())));
+        }
+        return pattern.toString();
+    }
+
+    /**
+     * Builds 1..maxTimeRanges ordered, non-overlapping ranges between FIRST_HOUR and LAST_HOUR
+     */
+    private String timePattern(Random random) {
+        int ranges = 1 + random.nextInt(Math.max(1, settings.getMaxTimeRanges()));
+        StringBuilder pattern = new StringBuilder();
+        int hour = FIRST_HOUR + random.nextInt(4);
+        for (int r = 0; r < ranges && hour < LAST_HOUR; r++) {
+            int end = Math.min(LAST_HOUR, hour + 1 + random.nextInt(3));
+            if (pattern.length() > 0) {
+                pattern.append('_');
+            }
+            pattern.append(hour).append('-').append(end);
+            hour = end + random.nextInt(3);
+        }
+        return pattern.toString();
+    }
+
+    private String malformedLine(Random random, int room) {
+        switch (random.nextInt(5)) {
+            case 0:
+                return "Broken Sala" + room + " 01/01/2024";
+            case 1:
+                return "BadDate Sala" + room + " 2024-01-01 31/01/2024 LMC 10-11";
+            case 2:
+                return "BadDays Sala" + room + " 01/01/2024 31/01/2024 XYZ 10-11";
+            case 3:
+                return "BadHours Sala" + room + " 01/01/2024 31/01/2024 LMC 12-10";
+            default:
+                return "#garbage " + Long.toHexString(random.nextLong());
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Settings settings = new Settings();
+        Path outputDir = Paths.get(".");
+
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            if (option.length != 2) {
+                throw new IllegalArgumentException("Options must look like --name=value: " + arg);
+            }
+            String value = option[1];
+            switch (option[0]) {
+                case "seed": settings.setSeed(Long.parseLong(value)); break;
+                case "reservations": settings.setReservations(Integer.parseInt(value)); break;
+                case "rooms": settings.setRooms(Integer.parseInt(value)); break;
+                case "activities": settings.setActivities(Integer.parseInt(value)); break;
+                case "start": settings.setStartMonth(YearMonth.parse(value)); break;
+                case "months": settings.setMonths(Integer.parseInt(value)); break;
+                case "max-span-days": settings.setMaxSpanDays(Integer.parseInt(value)); break;
+                case "day-density": settings.setDayPatternDensity(Double.parseDouble(value)); break;
+                case "max-time-ranges": settings.setMaxTimeRanges(Integer.parseInt(value)); break;
+                case "conflict-rate": settings.setConflictRate(Double.parseDouble(value)); break;
+                case "closed-ratio": settings.setClosedRatio(Double.parseDouble(value)); break;
+                case "malformed-ratio": settings.setMalformedRatio(Double.parseDouble(value)); break;
+                case "out": outputDir = Paths.get(value); break;
+                default: throw new IllegalArgumentException("Unknown option: " + option[0]);
+            }
+        }
+
+        Files.createDirectories(outputDir);
+        WorkloadGenerator generator = new WorkloadGenerator(settings);
+        try (Writer config = Files.newBufferedWriter(outputDir.resolve("config.txt"), StandardCharsets.UTF_8);
+             Writer reservations = Files.newBufferedWriter(outputDir.resolve("peticiones.txt"), StandardCharsets.UTF_8)) {
+            generator.writeConfig(config);
+            generator.writeReservations(reservations);
+        }
+        System.out.println("Wrote " + settings.getReservations() + " lines to " + outputDir.toAbsolutePath());
+    }
+
+    /**
+     * Tunable parameters of a generated workload
+     */
+    public static class Settings {
+        private long seed = 42L;
+        private int reservations = 1000;
+        private int rooms = 2;
+        private int activities = 200;
+        private YearMonth startMonth = YearMonth.of(2024, 7);
+        private int months = 1;
+        private int maxSpanDays = 31;
+        private double dayPatternDensity = 0.5;
+        private int maxTimeRanges = 1;
+        private double conflictRate = 0.05;
+        private double closedRatio = 0.05;
+        private double malformedRatio = 0.0;
+        private String sourceLanguage = "ESP";
+        private String targetLanguage = "ENG";
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public Settings setSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public int getReservations() {
+            return reservations;
+        }
+
+        public Settings setReservations(int reservations) {
+            this.reservations = reservations;
+            return this;
+        }
+
+        public int getRooms() {
+            return rooms;
+        }
+
+        public Settings setRooms(int rooms) {
+            this.rooms = rooms;
+            return this;
+        }
+
+        public int getActivities() {
+            return activities;
+        }
+
+        public Settings setActivities(int activities) {
+            this.activities = activities;
+            return this;
+        }
+
+        public YearMonth getStartMonth() {
+            return startMonth;
+        }
+
+        public Settings setStartMonth(YearMonth startMonth) {
+            this.startMonth = startMonth;
+            return this;
+        }
+
+        public int getMonths() {
+            return months;
+        }
+
+        public Settings setMonths(int months) {
+            this.months = months;
+            return this;
+        }
+
+        public int getMaxSpanDays() {
+            return maxSpanDays;
+        }
+
+        public Settings setMaxSpanDays(int maxSpanDays) {
+            this.maxSpanDays = maxSpanDays;
+            return this;
+        }
+
+        public double getDayPatternDensity() {
+            return dayPatternDensity;
+        }
+
+        public Settings setDayPatternDensity(double dayPatternDensity) {
+            this.dayPatternDensity = dayPatternDensity;
+            return this;
+        }
+
+        public int getMaxTimeRanges() {
+            return maxTimeRanges;
+        }
+
+        public Settings setMaxTimeRanges(int maxTimeRanges) {
+            this.maxTimeRanges = maxTimeRanges;
+            return this;
+        }
+
+        public double getConflictRate() {
+            return conflictRate;
+        }
+
+        public Settings setConflictRate(double conflictRate) {
+            this.conflictRate = conflictRate;
+            return this;
+        }
+
+        public double getClosedRatio() {
+            return closedRatio;
+        }
+
+        public Settings setClosedRatio(double closedRatio) {
+            this.closedRatio = closedRatio;
+            return this;
+        }
+
+        public double getMalformedRatio() {
+            return malformedRatio;
+        }
+
+        public Settings setMalformedRatio(double malformedRatio) {
+            this.malformedRatio = malformedRatio;
+            return this;
+        }
+
+        public String getSourceLanguage() {
+            return sourceLanguage;
+        }
+
+        public Settings setSourceLanguage(String sourceLanguage) {
+            this.sourceLanguage = sourceLanguage;
+            return this;
+        }
+
+        public String getTargetLanguage() {
+            return targetLanguage;
+        }
+
+        public Settings setTargetLanguage(String targetLanguage) {
+            this.targetLanguage = targetLanguage;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.agenda.agendaespacios.controller;
+
+import com.agenda.agendaespacios.service.AgendaJobService;
+import com.agenda.agendaespacios.service.AgendaMetrics;
+import com.agenda.agendaespacios.service.AgendaProcessor;
+import com.agenda.agendaespacios.service.AgendaStore;
+import com.agenda.agendaespacios.service.DataLoader;
+import com.agenda.agendaespacios.service.FreeSlotSearch;
+import com.agenda.agendaespacios.service.ReservationDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AgendaApiControllerTest {
+
+    private final AgendaMetrics metrics = new AgendaMetrics();
+    private final DataLoader dataLoader = new DataLoader(metrics);
+    private final AgendaProcessor agendaProcessor = new AgendaProcessor(metrics);
+    private final AgendaStore agendaStore = new AgendaStore(false, "agenda-store");
+    private final ReservationDatabase reservationDatabase = new ReservationDatabase(new DriverManagerDataSource(), false);
+    private final AgendaJobService jobService = new AgendaJobService(dataLoader, agendaProcessor, agendaStore,
+        reservationDatabase, metrics, 1, 1, Duration.ofMinutes(5));
+    private final MockMvc mvc = MockMvcBuilders.standaloneSetup(new AgendaApiController(dataLoader, agendaProcessor,
+        jobService, agendaStore, reservationDatabase, new FreeSlotSearch())).build();
+
+    @AfterEach
+    void shutdown() {
+        jobService.shutdown();
+    }
+
+    private static String line(String startDate, String endDate) {
+        return "{\"activity\":\"Yoga\",\"room\":\"Aula1\"," +
+               (startDate != null ? "\"startDate\":\"" + startDate + "\"," : "") +
+               (endDate != null ? "\"endDate\":\"" + endDate + "\"," : "") +
+               "\"dayPattern\":\"L\",\"timePattern\":\"10-12\"}";
+    }
+
+    @Test
+    void testValidRequestReturnsOccupancy() throws Exception {
+        mvc.perform(post("/api/agenda").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"year\":2024,\"month\":7,\"reservations\":[" + line("01/07/2024", "31/07/2024") + "]}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.startPeriod").value("2024-07"))
+            .andExpect(jsonPath("$.rooms.Aula1['2024-07-01'][0][0]").value(10))
+            .andExpect(jsonPath("$.rooms.Aula1['2024-07-01'][0][2]").value("Yoga"));
+    }
+
+    @Test
+    void testLineMissingAFieldIsRejected() throws Exception {
+        mvc.perform(post("/api/agenda").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"year\":2024,\"month\":7,\"reservations\":[" + line("01/07/2024", null) + "]}"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value(containsString("missing endDate")));
+    }
+
+    @Test
+    void testMalformedDateIsAnInvalidReservation() throws Exception {
+        mvc.perform(post("/api/agenda").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"year\":2024,\"month\":7,\"reservations\":[" + line("2024-07-01", "31/07/2024") + "]}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rooms.Aula1").doesNotExist());
+    }
+
+    @Test
+    void testBadPeriodsAreRejected() throws Exception {
+        mvc.perform(post("/api/agenda").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"year\":2024,\"month\":7,\"endYear\":2024,\"endMonth\":6}"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("End period cannot be before start period"));
+        mvc.perform(post("/api/agenda").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"year\":2024,\"month\":1,\"endYear\":2030,\"endMonth\":12}"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value(containsString("longer than")));
+        mvc.perform(post("/api/agenda").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"year\":2024,\"month\":13}"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testOversizedUploadedPeriodIsRejected() throws Exception {
+        mvc.perform(multipart("/api/agenda")
+                .file(new MockMultipartFile("configFile", "config.txt", "text/plain", "2024 1 9999 12\nESP ENG\n".getBytes()))
+                .file(new MockMultipartFile("peticionesFile", "peticiones.txt", "text/plain",
+                                            "Yoga Aula1 01/07/2024 31/07/2024 L 10-12\n".getBytes())))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value(containsString("longer than")));
+    }
+}
@@ -103,5 +103,121 @@ class AgendaTest {
         assertDoesNotThrow(() -> agenda.addReservation(reservation));
     }
 
-    
+    @Test
+    void testMultiMonthAgendaFillsEveryMonthInRange() {
+        ConfigData config = new ConfigData(2024, 6, 2024, 8, "ESP", "ENG");
+        Agenda agenda = new Agenda(config);
+        Reservation reservation = new Reservation(
+            "Clase",
+            "Aula 1",
+            "28/06/2024",
+            "05/08/2024",
+            "LMCJV",
+            "08-09"
+        );
+        agenda.addReservation(reservation);
+
+        Agenda.RoomSchedule schedule = agenda.getRoomSchedules().get("Aula 1");
+        assertNotNull(schedule);
+        assertEquals("Clase", schedule.getActivity(java.time.LocalDate.of(2024, 6, 28), 8));
+        assertEquals("Clase", schedule.getActivity(java.time.LocalDate.of(2024, 7, 15), 8));
+        assertEquals("Clase", schedule.getActivity(java.time.LocalDate.of(2024, 8, 5), 8));
+        assertNull(schedule.getActivity(java.time.LocalDate.of(2024, 8, 6), 8));
+        assertTrue(agenda.getConflicts().isEmpty());
+    }
+
+    @Test
+    void testRetractReservationGivesFreedHoursToShadowedOne() {
+        ConfigData config = new ConfigData(2024, 7, "ESP", "ENG");
+        Agenda agenda = new Agenda(config);
+        Reservation yoga = new Reservation("Yoga", "Aula", "01/07/2024", "01/07/2024", "L", "10-12");
+        Reservation pilates = new Reservation("Pilates", "Aula", "01/07/2024", "01/07/2024", "L", "11-13");
+        agenda.addReservation(yoga);
+        agenda.addReservation(pilates);
+        assertEquals(1, agenda.getConflicts().size());
+
+        assertTrue(agenda.retractReservation(
+            new Reservation("Yoga", "Aula", "01/07/2024", "01/07/2024", "L", "10-12")));
+
+        Agenda.RoomSchedule schedule = agenda.getRoomSchedules().get("Aula");
+        assertNull(schedule.getActivity(java.time.LocalDate.of(2024, 7, 1), 10));
+        assertEquals("Pilates", schedule.getActivity(java.time.LocalDate.of(2024, 7, 1), 11));
+        assertTrue(agenda.getConflicts().isEmpty());
+        assertFalse(agenda.retractReservation(yoga));
+    }
+
+    @Test
+    void testReplayKeepsConflictsWithAnEarlierBookingOfTheSameActivity() {
+        ConfigData config = new ConfigData(2024, 7, "ESP", "ENG");
+        Agenda agenda = new Agenda(config);
+        agenda.addReservation(new Reservation("Yoga", "Aula", "01/07/2024", "31/07/2024", "L", "10-12"));
+        agenda.addReservation(new Reservation("Yoga", "Aula", "01/07/2024", "31/07/2024", "L", "11-13"));
+        List<Conflict> before = new java.util.ArrayList<>(agenda.getConflictRecords());
+        assertEquals(1, before.size());
+        assertEquals("Yoga", before.get(0).getHolder());
+
+        // Replays every Monday; the second Yoga still loses 11-12 to the first one, not to itself
+        agenda.applyReservation(new Reservation("Closed", "Aula", "01/07/2024", "31/07/2024", "L", "7-8"));
+        assertEquals(before, agenda.getConflictRecords());
+    }
+
+    @Test
+    void testApplyReservationMatchesFullRebuild() {
+        ConfigData config = new ConfigData(2024, 7, "ESP", "ENG");
+        List<Reservation> reservations = List.of(
+            new Reservation("Yoga", "Sala1", "01/07/2024", "31/07/2024", "LMC", "10-12"),
+            new Reservation("Pilates", "Sala1", "01/07/2024", "31/07/2024", "L", "11-13"),
+            new Reservation("Closed", "Sala1", "15/07/2024", "17/07/2024", "LMCJVSG", "9-14"),
+            new Reservation("Zumba", "Sala1", "01/07/2024", "31/07/2024", "MJ", "6-8"));
+
+        Agenda incremental = new Agenda(config);
+        reservations.forEach(incremental::applyReservation);
+
+        // Full rebuild order: Closed first, then regular ones
+        Agenda rebuilt = new Agenda(config);
+        rebuilt.addReservation(reservations.get(2));
+        rebuilt.addReservation(reservations.get(0));
+        rebuilt.addReservation(reservations.get(1));
+        rebuilt.addReservation(reservations.get(3));
+
+        Agenda.RoomSchedule expected = rebuilt.getRoomSchedules().get("Sala1");
+        Agenda.RoomSchedule actual = incremental.getRoomSchedules().get("Sala1");
+        for (java.time.LocalDate date = java.time.LocalDate.of(2024, 7, 1);
+             date.getMonthValue() == 7; date = date.plusDays(1)) {
+            assertEquals(expected.getRuns(date).toString(), actual.getRuns(date).toString(), date.toString());
+        }
+        assertEquals(new java.util.TreeSet<>(rebuilt.getConflicts()), new java.util.TreeSet<>(incremental.getConflicts()));
+        assertEquals(rebuilt.getConflicts().size(), incremental.getConflicts().size());
+    }
+
+    @Test
+    void testRecurringConflictsMergeIntoOneEntry() {
+        ConfigData config = new ConfigData(2024, 7, "ESP", "ENG");
+        Agenda agenda = new Agenda(config);
+        agenda.addReservation(new Reservation("Yoga", "Aula", "01/07/2024", "31/07/2024", "L", "10-12"));
+        agenda.addReservation(new Reservation("Pilates", "Aula", "01/07/2024", "31/07/2024", "LM", "11-13"));
+
+        // Mondays 1, 8, 15, 22 and 29 clash with Yoga; the free Tuesdays in between do not break the run
+        assertEquals(1, agenda.getConflictCount());
+        Conflict conflict = agenda.getConflictRecords().get(0);
+        assertEquals(java.time.LocalDate.of(2024, 7, 1), conflict.getFirstDate());
+        assertEquals(java.time.LocalDate.of(2024, 7, 29), conflict.getLastDate());
+        assertEquals(5, conflict.getDays());
+        assertEquals("Conflict in room Aula for activity Pilates: Time slot 11-12 on 2024-07-01 to 2024-07-29 "
+                     + "(5 days) already booked for 'Yoga'", agenda.getConflicts().get(0));
+    }
+
+    @Test
+    void testConflictLimitKeepsCountingPastTheCap() {
+        ConfigData config = new ConfigData(2024, 7, "ESP", "ENG");
+        Agenda agenda = new Agenda(config);
+        agenda.setConflictLimit(1);
+        agenda.addReservation(new Reservation("Yoga", "Aula", "01/07/2024", "01/07/2024", "L", "10-12"));
+        agenda.addReservation(new Reservation("Pilates", "Aula", "01/07/2024", "01/07/2024", "L", "11-13"));
+        agenda.addReservation(new Reservation("Zumba", "Aula", "01/07/2024", "01/07/2024", "L", "10-11"));
+
+        assertEquals(1, agenda.getConflicts().size());
+        assertEquals(2, agenda.getConflictCount());
+        assertEquals(1, agenda.getConflictOverflow());
+    }
 }
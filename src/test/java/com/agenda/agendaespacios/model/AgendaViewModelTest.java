@@ -44,6 +44,18 @@ class AgendaViewModelTest {
         assertTrue(conflicts.contains("Error 2"));
     }
 
+    @Test
+    void testViewModelOfConcurrentAgendaSharesItsConflicts() {
+        ConfigData config = new ConfigData(2024, 7, "ESP", "ENG");
+        ConcurrentAgenda agenda = new ConcurrentAgenda(config);
+        agenda.getConflicts().add("Error 1");
+        AgendaViewModel viewModel = new AgendaViewModel(config, agenda);
+
+        assertSame(agenda.getConflicts(), viewModel.getConflicts());
+        assertEquals(1, viewModel.getConflictRecords().size());
+        assertEquals(List.of("Error 1"), agenda.getConflictSnapshot());
+    }
+
     @Test
     void testNullAgendaHandledGracefully() {
         ConfigData config = new ConfigData(2024, 7, "ESP", "ENG");
@@ -54,4 +66,44 @@ class AgendaViewModelTest {
         assertTrue(viewModel.getRoomSchedules().isEmpty());
         assertTrue(viewModel.getConflicts().isEmpty());
     }
+
+    @Test
+    void testLazyViewModelBuildsSameWeeksWhileIterating() {
+        ConfigData config = new ConfigData(2024, 7, "ESP", "ENG");
+        Agenda agenda = new Agenda(config);
+        agenda.addReservation(new Reservation("Yoga", "Sala3", "01/07/2024", "31/07/2024", "L", "10-12"));
+        AgendaViewModel eager = new AgendaViewModel(config, agenda);
+        AgendaViewModel lazy = new AgendaViewModel(config, agenda, true);
+
+        List<String> flushedBefore = new ArrayList<>();
+        Map<String, List<AgendaViewModel.WeekSchedule>> streamed =
+            lazy.streamRoomSchedules(() -> flushedBefore.add("room"));
+
+        assertTrue(lazy.isLazy());
+        assertEquals(eager.getRoomSchedules().keySet(), lazy.getRoomSchedules().keySet());
+        for (Map.Entry<String, List<AgendaViewModel.WeekSchedule>> entry : streamed.entrySet()) {
+            List<AgendaViewModel.WeekSchedule> expected = eager.getRoomSchedules().get(entry.getKey());
+            assertEquals(expected.size(), entry.getValue().size());
+            assertEquals(expected.get(1).getDays().get(0).getActivityForHour(10),
+                         entry.getValue().get(1).getDays().get(0).getActivityForHour(10));
+        }
+        assertEquals(agenda.getRoomSchedules().size(), flushedBefore.size());
+    }
+
+    @Test
+    void testWeekCellsArePrecomputedFromDaySchedules() {
+        AgendaViewModel.WeekSchedule week = new AgendaViewModel.WeekSchedule(java.time.LocalDate.of(2024, 7, 1));
+        week.addDay(java.time.LocalDate.of(2024, 7, 1), Map.of(6, "Closed", 10, "Yoga", 11, "Yoga"));
+        week.addDay(java.time.LocalDate.of(2024, 7, 2), new HashMap<>());
+        week.precomputeCells();
+
+        assertEquals(24, week.getRows().size());
+        assertEquals("10-11", week.getRows().get(10).getLabel());
+        assertEquals(AgendaViewModel.CellStatus.CLOSED, week.getCell(6, 0).getStatus());
+        assertEquals("occupied", week.getCell(10, 0).getCssClass());
+        assertEquals("Yoga", week.getCell(10, 0).getLabel());
+        assertSame(week.getCell(10, 0), week.getCell(11, 0));
+        assertEquals(AgendaViewModel.CellStatus.FREE, week.getCell(10, 1).getStatus());
+        assertNull(week.getCell(10, 1).getLabel());
+    }
 }
@@ -0,0 +1,93 @@
+package com.agenda.agendaespacios.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentAgendaTest {
+
+    private static final ConfigData CONFIG = new ConfigData(2024, 7, "ESP", "ENG");
+
+    @Test
+    void testOnlyOneConcurrentBookingOfASlotSucceeds() throws Exception {
+        ConcurrentAgenda agenda = new ConcurrentAgenda(CONFIG);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Conflict>>> attempts = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Reservation reservation = new Reservation("Clase" + i, "Aula 1", "01/07/2024", "31/07/2024", "L",
+                                                      (9 + i % 2) + "-11");
+            attempts.add(executor.submit(() -> {
+                start.await();
+                return agenda.tryBook(reservation);
+            }));
+        }
+        start.countDown();
+
+        int booked = 0;
+        for (Future<List<Conflict>> attempt : attempts) {
+            if (attempt.get(10, TimeUnit.SECONDS).isEmpty()) {
+                booked++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, booked);
+        assertEquals(0, agenda.getConflictCount());
+        assertFalse(agenda.isFree("Aula 1", LocalDate.of(2024, 7, 8), 10, 11));
+        assertTrue(agenda.isFree("Aula 1", LocalDate.of(2024, 7, 8), 11, 12));
+        assertFalse(agenda.isFree("Sala1", LocalDate.of(2024, 7, 8), 6, 7));
+    }
+
+    @Test
+    void testConcurrentWritesToDifferentRoomsMatchSequentialAgenda() throws Exception {
+        int rooms = 6;
+        List<List<Reservation>> perRoom = new ArrayList<>();
+        Agenda expected = new Agenda(CONFIG);
+        for (int room = 0; room < rooms; room++) {
+            List<Reservation> reservations = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                int hour = 8 + (i * 5 + room) % 10;
+                reservations.add(new Reservation("Clase" + i, "Aula " + room, String.format("%02d/07/2024", 1 + i % 28),
+                                                 "31/07/2024", i % 2 == 0 ? "LMC" : "JVS", hour + "-" + (hour + 2)));
+            }
+            perRoom.add(reservations);
+            reservations.forEach(expected::addReservation);
+        }
+
+        ConcurrentAgenda agenda = new ConcurrentAgenda(CONFIG);
+        ExecutorService executor = Executors.newFixedThreadPool(rooms);
+        List<Future<?>> writers = new ArrayList<>();
+        for (List<Reservation> reservations : perRoom) {
+            writers.add(executor.submit(() -> reservations.forEach(agenda::addReservation)));
+        }
+        for (Future<?> writer : writers) {
+            writer.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertTrue(expected.getConflictCount() > 0);
+        assertEquals(expected.getConflictCount(), agenda.getConflictCount());
+        assertEquals(expected.getConflictRecords().size(), agenda.getConflictRecordSnapshot().size());
+        for (String room : expected.getRoomSchedules().keySet()) {
+            assertEquals(expected.getRoomSchedules().get(room).getSchedule(),
+                         agenda.getRoomSchedules().get(room).getSchedule(), room);
+        }
+
+        List<String> snapshot = agenda.getConflictSnapshot();
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add("note"));
+        agenda.getConflicts().add("note");
+        assertEquals(snapshot.size() + 1, agenda.getConflicts().size());
+        assertEquals("note", agenda.getConflicts().get(snapshot.size()));
+    }
+}
@@ -128,4 +128,22 @@ class ConfigDataTest {
         ConfigData configBlankLang = new ConfigData(2024, 7, "ANY", "   ");
         assertEquals(Locale.ENGLISH, configBlankLang.getLocale()); // Default for blank
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testSingleMonthPeriod() {
+        ConfigData config = new ConfigData(2024, 7, "ESP", "ENG");
+        assertFalse(config.isMultiMonth());
+        assertEquals(config.getStartPeriod(), config.getEndPeriod());
+        assertEquals(1, config.getMonths().size());
+        assertEquals("7/2024", config.getPeriodDisplay());
+    }
+
+    @Test
+    void testMultiMonthPeriodAcrossYears() {
+        ConfigData config = new ConfigData(2024, 11, 2025, 2, "ESP", "ENG");
+        assertTrue(config.isMultiMonth());
+        assertEquals(4, config.getMonths().size());
+        assertEquals(java.time.YearMonth.of(2025, 2), config.getEndPeriod());
+        assertEquals("11/2024 - 2/2025", config.getPeriodDisplay());
+    }
+}
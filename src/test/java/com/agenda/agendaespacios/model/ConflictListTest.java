@@ -0,0 +1,80 @@
+package com.agenda.agendaespacios.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConflictListTest {
+
+    private static List<Conflict> notes(String... messages) {
+        List<Conflict> conflicts = new ArrayList<>();
+        for (String message : messages) {
+            conflicts.add(Conflict.note(message));
+        }
+        return conflicts;
+    }
+
+    @Test
+    void testSegmentsAreReplacedAndRemovedInPlace() {
+        ConflictList conflicts = new ConflictList();
+        ConflictList.Segment first = conflicts.addSegment(notes("a1", "a2"));
+        conflicts.add("loose");
+        ConflictList.Segment second = conflicts.addSegment(notes("b1"));
+
+        assertEquals(List.of("a1", "a2", "loose", "b1"), new ArrayList<>(conflicts));
+
+        conflicts.replaceSegment(first, notes("a3"));
+        assertEquals(List.of("a3", "loose", "b1"), new ArrayList<>(conflicts));
+        assertEquals(3, conflicts.size());
+        assertEquals("b1", conflicts.get(2));
+
+        conflicts.removeSegment(second);
+        assertEquals(List.of("a3", "loose"), new ArrayList<>(conflicts));
+        assertEquals(2, conflicts.size());
+    }
+
+    @Test
+    void testSegmentsOfClearedListAreNotCounted() {
+        ConflictList conflicts = new ConflictList();
+        ConflictList.Segment segment = conflicts.addSegment(notes("a1"));
+        conflicts.clear();
+
+        ConflictList.Segment replaced = conflicts.replaceSegment(segment, notes("a2"));
+        conflicts.removeSegment(segment);
+
+        assertNotSame(segment, replaced);
+        assertEquals(List.of("a2"), new ArrayList<>(conflicts));
+        assertEquals(1, conflicts.size());
+    }
+
+    @Test
+    void testLimitKeepsOnlyCountsPastIt() {
+        ConflictList conflicts = new ConflictList();
+        conflicts.setLimit(3);
+        ConflictList.Segment first = conflicts.addSegment(notes("a1", "a2"));
+        ConflictList.Segment second = conflicts.addSegment(notes("b1", "b2"));
+        conflicts.add("loose");
+
+        assertEquals(List.of("a1", "a2", "b1"), new ArrayList<>(conflicts));
+        assertEquals(3, conflicts.records().size());
+        assertEquals(5, conflicts.getTotal());
+        assertEquals(2, conflicts.getOverflow());
+        assertFalse(conflicts.holds(second, notes("b1", "b2")));
+
+        // Dropped records are not brought back, but they are still counted
+        conflicts.removeSegment(first);
+        assertEquals(List.of("b1"), new ArrayList<>(conflicts));
+        assertEquals(3, conflicts.getTotal());
+        assertEquals(2, conflicts.getOverflow());
+
+        // A replaced segment keeps its records while there is room
+        conflicts.replaceSegment(second, notes("b3", "b4"));
+        assertEquals(List.of("b3", "b4"), new ArrayList<>(conflicts));
+        assertTrue(conflicts.holds(second, notes("b3", "b4")));
+        assertEquals(3, conflicts.getTotal());
+        assertEquals(1, conflicts.getOverflow());
+    }
+}
@@ -0,0 +1,73 @@
+package com.agenda.agendaespacios.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameDictionaryTest {
+
+    @Test
+    void testBytesAndStringsShareIdsAndInstances() {
+        NameDictionary names = new NameDictionary();
+        byte[] line = "Closed Sala1 Música Sala1".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(NameDictionary.CLOSED_ID, names.id(line, 0, 6));
+        assertSame(OpeningHours.CLOSED, names.name(NameDictionary.CLOSED_ID));
+
+        int room = names.id(line, 7, 12);
+        int music = names.id("Música");
+        assertEquals(1, room);
+        assertEquals(2, music);
+        assertEquals(music, names.id(line, 13, line.length - 6));
+        assertEquals(room, names.id(line, line.length - 5, line.length));
+        assertEquals("Música", names.name(music));
+        assertEquals(3, names.size());
+    }
+
+    @Test
+    void testIdsStayDenseWhileGrowing() {
+        NameDictionary names = new NameDictionary();
+        for (int i = 1; i <= 1000; i++) {
+            assertEquals(i, names.id("Activity" + i));
+        }
+        for (int i = 1; i <= 1000; i++) {
+            assertEquals(i, names.id("Activity" + i));
+            assertEquals("Activity" + i, names.name(i));
+        }
+        assertEquals(1001, names.size());
+        assertThrows(IllegalArgumentException.class, () -> names.name(1001));
+    }
+
+    @Test
+    void testConcurrentLookupsAgreeOnIds() throws Exception {
+        NameDictionary names = new NameDictionary();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<int[]>> workers = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            int offset = w * 100;
+            workers.add(executor.submit(() -> {
+                int[] ids = new int[500];
+                for (int i = 0; i < ids.length; i++) {
+                    int n = (i + offset) % ids.length;
+                    ids[n] = names.id("Activity" + n);
+                    assertEquals("Activity" + n, names.name(ids[n]));
+                }
+                return ids;
+            }));
+        }
+        int[] first = workers.get(0).get(10, TimeUnit.SECONDS);
+        for (Future<int[]> worker : workers) {
+            assertArrayEquals(first, worker.get(10, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        assertEquals(501, names.size());
+    }
+}
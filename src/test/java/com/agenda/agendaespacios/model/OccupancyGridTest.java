@@ -0,0 +1,136 @@
+package com.agenda.agendaespacios.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OccupancyGridTest {
+
+    @Test
+    void testHourMaskCoversHalfOpenRange() {
+        assertEquals(0b1110, OccupancyGrid.hourMask(1, 4));
+        assertEquals(OccupancyGrid.FULL_DAY_MASK, OccupancyGrid.hourMask(0, 24));
+        assertEquals(0, OccupancyGrid.hourMask(5, 5));
+    }
+
+    @Test
+    void testMarkAndReadBack() {
+        OccupancyGrid grid = new OccupancyGrid(31);
+        grid.mark(3, 10, "Yoga");
+        grid.markMask(3, OccupancyGrid.hourMask(14, 16), "Pilates");
+
+        assertTrue(grid.isOccupied(3, 10));
+        assertFalse(grid.isOccupied(3, 11));
+        assertEquals("Yoga", grid.getActivity(3, 10));
+        assertEquals("Pilates", grid.getActivity(3, 15));
+        assertNull(grid.getActivity(4, 10));
+        assertEquals(grid.intern("Yoga"), grid.intern("Yoga"));
+    }
+
+    @Test
+    void testDayViewIsReadOnlyAndBackedByGrid() {
+        OccupancyGrid grid = new OccupancyGrid(1);
+        Map<Integer, String> view = grid.dayView(0);
+        assertTrue(view.isEmpty());
+
+        grid.mark(0, 8, "Clase");
+        assertEquals(1, view.size());
+        assertEquals("Clase", view.get(8));
+        assertEquals("free", view.getOrDefault(9, "free"));
+        assertThrows(UnsupportedOperationException.class, () -> view.put(9, "Other"));
+    }
+
+    @Test
+    void testRoomScheduleConflictsAndView() {
+        Agenda.RoomSchedule schedule = new Agenda.RoomSchedule(YearMonth.of(2024, 7));
+        Reservation first = new Reservation("Yoga", "Sala1", "01/07/2024", "01/07/2024", "L", "10-12");
+        Reservation second = new Reservation("Pilates", "Sala1", "01/07/2024", "01/07/2024", "L", "11-13");
+
+        assertTrue(schedule.addReservationWithDetails(first).isEmpty());
+        List<String> conflicts = schedule.addReservationWithDetails(second);
+
+        assertEquals(1, conflicts.size());
+        assertTrue(conflicts.get(0).contains("'Yoga'"));
+        LocalDate date = LocalDate.of(2024, 7, 1);
+        assertEquals("Yoga", schedule.getSchedule().get(date).get(11));
+        assertEquals("Pilates", schedule.getSchedule().get(date).get(12));
+        assertEquals(31, schedule.getSchedule().size());
+    }
+
+    @Test
+    void testClosedOverClosedIsNotAConflict() {
+        Agenda.RoomSchedule schedule = new Agenda.RoomSchedule(YearMonth.of(2024, 7));
+        schedule.markHours(LocalDate.of(2024, 7, 1), OccupancyGrid.hourMask(0, 7), "Closed");
+        Reservation closed = new Reservation("Closed", "Sala1", "01/07/2024", "01/07/2024", "L", "6-8");
+
+        assertTrue(schedule.addReservationWithDetails(closed).isEmpty());
+        assertEquals("Closed", schedule.getActivity(LocalDate.of(2024, 7, 1), 7));
+    }
+
+    @Test
+    void testAdjacentCollidingHoursMergeIntoOneConflict() {
+        Agenda.RoomSchedule schedule = new Agenda.RoomSchedule(YearMonth.of(2024, 7));
+        schedule.addReservationWithDetails(
+            new Reservation("Yoga", "Sala1", "01/07/2024", "01/07/2024", "L", "10-13"));
+        schedule.addReservationWithDetails(
+            new Reservation("Pilates", "Sala1", "01/07/2024", "01/07/2024", "L", "13-14"));
+
+        List<String> conflicts = schedule.addReservationWithDetails(
+            new Reservation("Zumba", "Sala1", "01/07/2024", "01/07/2024", "L", "9-15"));
+
+        assertEquals(2, conflicts.size());
+        assertTrue(conflicts.get(0).startsWith("Time slot 10-13 on 2024-07-01"));
+        assertTrue(conflicts.get(1).startsWith("Time slot 13-14 on 2024-07-01"));
+        assertEquals("Zumba", schedule.getActivity(LocalDate.of(2024, 7, 1), 9));
+        assertEquals("Zumba", schedule.getActivity(LocalDate.of(2024, 7, 1), 14));
+    }
+
+    @Test
+    void testRunsMergeConsecutiveHoursWithSameActivity() {
+        OccupancyGrid grid = new OccupancyGrid(31);
+        grid.markMask(0, OccupancyGrid.hourMask(0, 7), "Closed");
+        grid.markMask(0, OccupancyGrid.hourMask(10, 12), "Yoga");
+        grid.markMask(0, OccupancyGrid.hourMask(12, 13), "Pilates");
+
+        List<OccupancyRun> runs = grid.runs(0);
+
+        assertEquals(3, runs.size());
+        assertEquals(0, runs.get(0).getStartHour());
+        assertEquals(7, runs.get(0).getEndHour());
+        assertEquals("Closed", runs.get(0).getActivity());
+        assertEquals("Yoga", runs.get(1).getActivity());
+        assertEquals(12, runs.get(1).getEndHour());
+        assertEquals(12, runs.get(2).getStartHour());
+        assertTrue(grid.runs(1).isEmpty());
+    }
+
+    @Test
+    void testMatchingDaysExpandsWeekdayMaskOverMonth() {
+        // July 2024 starts on a Monday: Mondays are the 1st, 8th, 15th, 22nd and 29th
+        int mondays = Agenda.RoomSchedule.matchingDays(0b1, 0, 0, 30);
+        assertEquals((1 << 0) | (1 << 7) | (1 << 14) | (1 << 21) | (1 << 28), mondays);
+
+        // February 2024 starts on a Thursday (3); Sundays (bit 6) between the 5th and 20th are the 11th and 18th
+        int sundays = Agenda.RoomSchedule.matchingDays(0b1000000, 3, 4, 19);
+        assertEquals((1 << 10) | (1 << 17), sundays);
+    }
+
+    @Test
+    void testRecurringReservationBooksOnlyPatternDaysAcrossMonths() {
+        Agenda.RoomSchedule schedule = new Agenda.RoomSchedule(YearMonth.of(2024, 7), YearMonth.of(2024, 8));
+        schedule.addReservationWithDetails(
+            new Reservation("Yoga", "Sala1", "29/07/2024", "06/08/2024", "LG", "10-11"));
+
+        assertEquals("Yoga", schedule.getActivity(LocalDate.of(2024, 7, 29), 10));
+        assertEquals("Yoga", schedule.getActivity(LocalDate.of(2024, 8, 4), 10));
+        assertEquals("Yoga", schedule.getActivity(LocalDate.of(2024, 8, 5), 10));
+        assertNull(schedule.getActivity(LocalDate.of(2024, 7, 30), 10));
+        assertNull(schedule.getActivity(LocalDate.of(2024, 8, 6), 10));
+        assertNull(schedule.getActivity(LocalDate.of(2024, 7, 22), 10));
+    }
+}
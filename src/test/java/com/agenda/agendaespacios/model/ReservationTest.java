@@ -178,4 +178,12 @@ public class ReservationTest {
         assertFalse(range1.overlaps(range2));
         assertFalse(range2.overlaps(range1));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testDayAndTimePatternsAreCompiledToMasks() {
+        Reservation reservation = new Reservation("Yoga", "Sala1", "01/07/2024", "31/07/2024", "LCG", "08-10_16-17");
+
+        assertEquals(0b1000101, reservation.getWeekdayMask());
+        assertEquals((1 << 8) | (1 << 9) | (1 << 16), reservation.getHourMask());
+    }
+}
@@ -0,0 +1,54 @@
+package com.agenda.agendaespacios.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomRegistryTest {
+
+    @Test
+    void testParseOpeningHoursPerWeekday() {
+        OpeningHours hours = OpeningHours.parse("school", "LMCJV 8-14_16-21; S 9-14");
+
+        assertEquals(OccupancyGrid.FULL_DAY_MASK & ~(OccupancyGrid.hourMask(8, 14) | OccupancyGrid.hourMask(16, 21)),
+                     hours.getClosedMask(0));
+        assertEquals(OccupancyGrid.FULL_DAY_MASK & ~OccupancyGrid.hourMask(9, 14), hours.getClosedMask(5));
+        assertEquals(OccupancyGrid.FULL_DAY_MASK, hours.getClosedMask(6));
+        assertThrows(IllegalArgumentException.class, () -> OpeningHours.parse("bad", "LX 8-14"));
+        assertThrows(IllegalArgumentException.class, () -> OpeningHours.parse("bad", "L 14-8"));
+    }
+
+    @Test
+    void testRoomsShareTheTemplateUntilBooked() {
+        RoomRegistry registry = new RoomRegistry();
+        registry.addTemplate(OpeningHours.parse("weekdays", "LMCJV 8-20"));
+        registry.addBuilding("north", "weekdays", List.of("N1", "N2"));
+        Agenda agenda = new Agenda(new ConfigData(2024, 7, "ESP", "ENG"), registry);
+
+        Agenda.RoomSchedule n1 = agenda.getRoomSchedules().get("N1");
+        Agenda.RoomSchedule n2 = agenda.getRoomSchedules().get("N2");
+        assertSame(n1.getGrid(YearMonth.of(2024, 7)), n2.getGrid(YearMonth.of(2024, 7)));
+        assertEquals("Closed", n1.getActivity(LocalDate.of(2024, 7, 1), 7));
+        assertEquals("Closed", n1.getActivity(LocalDate.of(2024, 7, 6), 12));
+        assertNull(n1.getActivity(LocalDate.of(2024, 7, 1), 8));
+
+        agenda.addReservation(new Reservation("Yoga", "N1", "01/07/2024", "01/07/2024", "L", "7-9"));
+
+        assertEquals("Yoga", n1.getActivity(LocalDate.of(2024, 7, 1), 8));
+        assertNull(n2.getActivity(LocalDate.of(2024, 7, 1), 8));
+        assertTrue(n2.getGrid(YearMonth.of(2024, 7)).isShared());
+        assertFalse(n1.getGrid(YearMonth.of(2024, 7)).isShared());
+        assertEquals(1, agenda.getConflictCount());
+        assertEquals("north", registry.getBuilding("N1"));
+    }
+
+    @Test
+    void testUnknownTemplateIsRejected() {
+        RoomRegistry registry = new RoomRegistry();
+        assertThrows(IllegalArgumentException.class, () -> registry.addBuilding("north", "missing", List.of("N1")));
+    }
+}
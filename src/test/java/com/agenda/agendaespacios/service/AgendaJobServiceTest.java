@@ -0,0 +1,88 @@
+package com.agenda.agendaespacios.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AgendaJobServiceTest {
+
+    private static final byte[] CONFIG = "2024 07\nESP ENG".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] RESERVATIONS = ("Yoga Sala1 01/07/2024 31/07/2024 L 10-12\n" +
+                                                "Pilates Sala1 01/07/2024 31/07/2024 L 11-13\n" +
+                                                "Broken line\n").getBytes(StandardCharsets.UTF_8);
+
+    private final AgendaMetrics metrics = new AgendaMetrics();
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(1));
+    private final AgendaJobService service = new AgendaJobService(new DataLoader(metrics), new AgendaProcessor(metrics),
+        new AgendaStore(false, "agenda-store"), new ReservationDatabase(new DriverManagerDataSource(), false),
+        metrics, executor, Duration.ofMinutes(5), Clock.systemUTC());
+
+    @AfterEach
+    void shutdown() {
+        service.shutdown();
+    }
+
+    private static AgendaJob await(AgendaJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!job.isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return job;
+    }
+
+    @Test
+    void submit_shouldComputeAgendaAndReportProgress() throws InterruptedException {
+        AgendaJob job = await(service.submit(CONFIG, RESERVATIONS));
+
+        assertEquals(AgendaJob.Status.SUCCEEDED, job.getStatus());
+        assertEquals(2, job.getReservationsParsed());
+        assertEquals(2, job.getTotalReservations());
+        assertEquals(2, job.getReservationsApplied());
+        assertSame(job, service.get(job.getId()));
+        assertEquals("Pilates", job.getAgenda().getRoomSchedules().get("Sala1").getActivity(
+            java.time.LocalDate.of(2024, 7, 1), 12));
+        assertFalse(job.getAgenda().getConflicts().isEmpty());
+    }
+
+    @Test
+    void submit_invalidConfig_shouldFailJob() throws InterruptedException {
+        AgendaJob job = await(service.submit("not a config".getBytes(StandardCharsets.UTF_8), RESERVATIONS));
+
+        assertEquals(AgendaJob.Status.FAILED, job.getStatus());
+        assertNotNull(job.getError());
+        assertNull(job.getAgenda());
+    }
+
+    @Test
+    void submit_fullQueue_shouldBeRejected() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        AgendaJob queued = service.submit(CONFIG, RESERVATIONS);
+        assertEquals(AgendaJob.Status.QUEUED, queued.getStatus());
+        assertEquals(1, service.getQueueDepth());
+        assertThrows(RejectedExecutionException.class, () -> service.submit(CONFIG, RESERVATIONS));
+        assertEquals(1.0, metrics.getRegistry().get("agenda.jobs.rejected").counter().count());
+
+        release.countDown();
+        assertEquals(AgendaJob.Status.SUCCEEDED, await(queued).getStatus());
+    }
+}
@@ -2,11 +2,17 @@ package com.agenda.agendaespacios.service;
 
 import com.agenda.agendaespacios.model.Agenda;
 import com.agenda.agendaespacios.model.ConfigData;
+import com.agenda.agendaespacios.model.Conflict;
 import com.agenda.agendaespacios.model.Reservation;
+import com.agenda.agendaespacios.model.RoomRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -101,4 +107,97 @@ class AgendaProcessorTest {
         assertNotNull(agenda);
         assertTrue(agenda.getConflicts().isEmpty());
     }
+
+    @Test
+    void testCreateAgendaRecordsStageMetrics() {
+        ConfigData config = new ConfigData(2024, 7, "ESP", "ENG");
+        AgendaMetrics metrics = new AgendaMetrics(new SimpleMeterRegistry());
+        Reservation closed = new Reservation("Closed", "Aula 1", "01/07/2024", "01/07/2024", "L", "08-10");
+        Reservation clase = new Reservation("Clase", "Aula 1", "01/07/2024", "01/07/2024", "L", "09-11");
+
+        new AgendaProcessor(metrics).createAgenda(config, Arrays.asList(clase, closed));
+
+        assertEquals(1, metrics.stageTimer(AgendaMetrics.STAGE_CLOSED_PASS).count());
+        assertEquals(1, metrics.stageTimer(AgendaMetrics.STAGE_REGULAR_PASS).count());
+        assertEquals(0, metrics.stageTimer(AgendaMetrics.STAGE_PRIORITY_PASS).count());
+        assertEquals(2.0, metrics.getRegistry().get("agenda.reservations").tag("result", "valid").counter().count());
+        assertEquals(1.0, metrics.getRegistry().get("agenda.conflicts").summary().totalAmount());
+    }
+
+    @Test
+    void testInvalidReservationsAreCountedAsInvalidInBothModes() {
+        ConfigData config = new ConfigData(2024, 7, "ESP", "ENG");
+        Reservation clase = new Reservation("Clase", "Aula 1", "01/07/2024", "01/07/2024", "L", "09-11");
+        Reservation badDate = new Reservation("Yoga", "Aula 2", "2024-07-01", "31/07/2024", "L", "10-12");
+        assertFalse(badDate.isValid());
+
+        for (int threshold : new int[] {Integer.MAX_VALUE, 1}) {
+            AgendaMetrics metrics = new AgendaMetrics(new SimpleMeterRegistry());
+            AgendaProcessor processor = new AgendaProcessor(metrics);
+            processor.setParallelThreshold(threshold);
+
+            processor.createAgenda(config, Arrays.asList(clase, badDate));
+
+            assertEquals(1.0, metrics.getRegistry().get("agenda.reservations").tag("result", "valid").counter().count());
+            assertEquals(1.0, metrics.getRegistry().get("agenda.reservations").tag("result", "invalid").counter().count());
+        }
+    }
+
+    @Test
+    void testPriorityActivitiesTakeSlotsBeforeRegularOnes() {
+        ConfigData config = new ConfigData(2024, 7, "ESP", "ENG");
+        Reservation clase = new Reservation("Clase", "Aula 1", "01/07/2024", "01/07/2024", "L", "09-11");
+        Reservation examen = new Reservation("Examen", "Aula 1", "01/07/2024", "01/07/2024", "L", "10-12");
+        Reservation closed = new Reservation("Closed", "Aula 1", "01/07/2024", "01/07/2024", "L", "11-12");
+        AgendaMetrics metrics = new AgendaMetrics(new SimpleMeterRegistry());
+        AgendaProcessor processor = new AgendaProcessor(metrics, AgendaProcessor.DEFAULT_CONFLICT_LIMIT,
+                                                        RoomRegistry.defaults(), new String[] {"Examen"});
+
+        Agenda agenda = processor.createAgenda(config, Arrays.asList(clase, examen, closed));
+
+        // Closed first, then Examen (loses 11-12), then Clase (loses 10-11)
+        List<Conflict> conflicts = agenda.getConflictRecords();
+        assertEquals(2, conflicts.size());
+        assertEquals("Examen", conflicts.get(0).getActivity());
+        assertEquals("Closed", conflicts.get(0).getHolder());
+        assertEquals("Clase", conflicts.get(1).getActivity());
+        assertEquals("Examen", conflicts.get(1).getHolder());
+        assertEquals(1, metrics.stageTimer(AgendaMetrics.STAGE_CLOSED_PASS).count());
+        assertEquals(1, metrics.stageTimer(AgendaMetrics.STAGE_PRIORITY_PASS).count());
+        assertEquals(0.0, metrics.getRegistry().get("agenda.closed.conflicts").counter().count());
+        assertEquals(1.0, metrics.getRegistry().get("agenda.priority.conflicts").counter().count());
+    }
+
+    @Test
+    void testParallelBuildMatchesSequentialBuild() {
+        ConfigData config = new ConfigData(2024, 7, "ESP", "ENG");
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String room = "Aula " + (i % 7);
+            int start = 8 + i % 9;
+            reservations.add(new Reservation(i % 13 == 0 ? "Closed" : "Clase" + i, room,
+                String.format("%02d/07/2024", 1 + i % 20), "31/07/2024", i % 2 == 0 ? "LMC" : "LCV",
+                start + "-" + (start + 2)));
+        }
+        reservations.add(new Reservation("Clase", "Aula 1", "01/06/2024", "30/06/2024", "L", "09-10"));
+        reservations.add(new Reservation("Clase", "Aula 2", "01/07/2024", "31/07/2024", "X", "09-10"));
+        AgendaProcessor sequential = new AgendaProcessor(new AgendaMetrics(), Integer.MAX_VALUE);
+        sequential.setParallelThreshold(Integer.MAX_VALUE);
+        AgendaProcessor parallel = new AgendaProcessor(new AgendaMetrics(), Integer.MAX_VALUE);
+        parallel.setParallelThreshold(1);
+        AtomicInteger handled = new AtomicInteger();
+
+        Agenda expected = sequential.createAgenda(config, reservations);
+        Agenda actual = parallel.createAgenda(config, reservations, handled::incrementAndGet);
+
+        assertTrue(expected.getConflictCount() > 0);
+        assertEquals(expected.getConflicts(), actual.getConflicts());
+        assertEquals(expected.getConflictRecords(), actual.getConflictRecords());
+        assertEquals(expected.getRoomSchedules().keySet(), actual.getRoomSchedules().keySet());
+        for (String room : expected.getRoomSchedules().keySet()) {
+            assertEquals(expected.getRoomSchedules().get(room).getSchedule(),
+                         actual.getRoomSchedules().get(room).getSchedule(), room);
+        }
+        assertEquals(reservations.size(), handled.get());
+    }
 }
@@ -0,0 +1,91 @@
+package com.agenda.agendaespacios.service;
+
+import com.agenda.agendaespacios.model.ConfigData;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AgendaResultCacheTest {
+
+    private static MockMultipartFile file(String content) {
+        return new MockMultipartFile("file", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-07-01T10:00:00Z");
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    @Test
+    void keyFor_shouldDependOnBothContentsAndBoundary() {
+        AgendaResultCache cache = new AgendaResultCache(4, Duration.ofMinutes(10), new AgendaMetrics());
+
+        String key = cache.keyFor(file("2024 07\nESP ENG"), file("Yoga Sala1 01/07/2024 31/07/2024 L 10-11"));
+
+        assertEquals(key, cache.keyFor(file("2024 07\nESP ENG"), file("Yoga Sala1 01/07/2024 31/07/2024 L 10-11")));
+        assertNotEquals(key, cache.keyFor(file("2024 07\nESP ENG"), file("Yoga Sala1 01/07/2024 31/07/2024 M 10-11")));
+        assertNotEquals(cache.keyFor(file("ab"), file("c")), cache.keyFor(file("a"), file("bc")));
+    }
+
+    @Test
+    void get_shouldCountHitsAndMisses() {
+        AgendaResultCache cache = new AgendaResultCache(4, Duration.ofMinutes(10), new AgendaMetrics());
+        ConfigData config = new ConfigData(2024, 7, "ESP", "ENG");
+
+        assertNull(cache.get("k1"));
+        cache.put("k1", config, null);
+
+        assertSame(config, cache.get("k1").getConfig());
+        assertEquals(1.0, cache.getHitCount());
+        assertEquals(1.0, cache.getMissCount());
+    }
+
+    @Test
+    void put_shouldEvictLeastRecentlyUsedEntry() {
+        AgendaResultCache cache = new AgendaResultCache(2, Duration.ofMinutes(10), new AgendaMetrics());
+        ConfigData config = new ConfigData(2024, 7, "ESP", "ENG");
+
+        cache.put("a", config, null);
+        cache.put("b", config, null);
+        cache.get("a");
+        cache.put("c", config, null);
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(1.0, cache.getEvictionCount());
+    }
+
+    @Test
+    void get_shouldExpireEntriesAfterTimeToLive() {
+        MutableClock clock = new MutableClock();
+        AgendaResultCache cache = new AgendaResultCache(4, Duration.ofMinutes(10), new AgendaMetrics(), clock);
+        cache.put("a", new ConfigData(2024, 7, "ESP", "ENG"), null);
+
+        clock.now = clock.now.plus(Duration.ofMinutes(11));
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+}
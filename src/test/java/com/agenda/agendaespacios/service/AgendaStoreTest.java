@@ -0,0 +1,97 @@
+package com.agenda.agendaespacios.service;
+
+import com.agenda.agendaespacios.model.Agenda;
+import com.agenda.agendaespacios.model.ConfigData;
+import com.agenda.agendaespacios.model.Reservation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AgendaStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private static Agenda buildAgenda() {
+        ConfigData config = new ConfigData(2024, 7, 2024, 8, "ESP", "ENG");
+        return new AgendaProcessor().createAgenda(config, List.of(
+            new Reservation("Yoga", "Aula 1", "01/07/2024", "31/08/2024", "L", "10-12"),
+            new Reservation("Pilates", "Sala1", "02/07/2024", "02/07/2024", "M", "9-11")));
+    }
+
+    @Test
+    void testSavedAgendaIsReadBackAfterReopening() {
+        Agenda agenda = buildAgenda();
+        assertTrue(new AgendaStore(directory).save(agenda));
+
+        AgendaStore reopened = new AgendaStore(directory);
+        reopened.open();
+
+        assertTrue(reopened.getRooms().containsAll(List.of("Aula 1", "Sala1", "Sala2")));
+        LocalDate monday = LocalDate.of(2024, 8, 5);
+        assertEquals("Yoga", reopened.getActivity("Aula 1", monday, 11));
+        assertNull(reopened.getActivity("Aula 1", monday, 12));
+        assertEquals("Closed", reopened.getActivity("Sala1", monday, 3));
+        assertEquals("Pilates", reopened.getActivity("Sala1", LocalDate.of(2024, 7, 2), 9));
+        assertEquals(agenda.getRoomSchedules().get("Sala1").getRuns(LocalDate.of(2024, 7, 2)).toString(),
+                     reopened.getRuns("Sala1", LocalDate.of(2024, 7, 2)).toString());
+
+        // Months that were never saved are not in the store
+        assertFalse(reopened.contains("Aula 1", LocalDate.of(2024, 9, 2)));
+        assertNull(reopened.getGrid("Aula 1", YearMonth.of(2024, 9)));
+    }
+
+    @Test
+    void testSavingAgainReplacesStoredMonths() {
+        AgendaStore store = new AgendaStore(directory);
+        store.save(buildAgenda());
+        assertEquals("Yoga", store.getActivity("Aula 1", LocalDate.of(2024, 7, 1), 10));
+
+        ConfigData july = new ConfigData(2024, 7, "ESP", "ENG");
+        store.save(new AgendaProcessor().createAgenda(july, List.of(
+            new Reservation("Zumba", "Aula 1", "01/07/2024", "31/07/2024", "L", "10-11"))));
+
+        assertEquals("Zumba", store.getActivity("Aula 1", LocalDate.of(2024, 7, 1), 10));
+        assertNull(store.getActivity("Aula 1", LocalDate.of(2024, 7, 1), 11));
+        assertEquals("Yoga", store.getActivity("Aula 1", LocalDate.of(2024, 8, 5), 11));
+    }
+
+    @Test
+    void testBackgroundSavesDropAgendasOnceTheQueueIsFull() throws Exception {
+        AgendaStore store = new AgendaStore(true, directory, 1);
+        Future<Boolean> running;
+        Future<Boolean> queued;
+        Future<Boolean> dropped;
+        synchronized (store) {
+            // The writer takes the first save and blocks on the store, the second one waits in the queue
+            running = store.saveInBackground(buildAgenda());
+            queued = store.saveInBackground(buildAgenda());
+            dropped = store.saveInBackground(buildAgenda());
+            assertTrue(dropped.isDone());
+        }
+
+        assertFalse(dropped.get());
+        assertTrue(running.get(10, TimeUnit.SECONDS));
+        assertTrue(queued.get(10, TimeUnit.SECONDS));
+        assertEquals("Yoga", store.getActivity("Aula 1", LocalDate.of(2024, 7, 1), 10));
+        store.shutdown();
+    }
+
+    @Test
+    void testDisabledStoreWritesNothing() throws Exception {
+        AgendaStore store = new AgendaStore(false, directory.resolve("store").toString());
+        store.open();
+
+        assertFalse(store.save(buildAgenda()));
+        assertFalse(Files.exists(directory.resolve("store")));
+    }
+}
@@ -38,6 +38,21 @@ class DataLoaderTest {
         assertEquals("EN", configData.getTargetLanguage());
     }
 
+    @Test
+    void loadConfig_periodFile_shouldReturnMultiMonthConfig() throws IOException {
+        String content = "2024 07 2024 12\n" +
+                         "ES EN";
+        MultipartFile configFile = new MockMultipartFile("config.txt", "config.txt", "text/plain", content.getBytes(StandardCharsets.UTF_8));
+
+        ConfigData configData = dataLoader.loadConfig(configFile);
+
+        assertTrue(configData.isMultiMonth());
+        assertEquals(2024, configData.getYear());
+        assertEquals(7, configData.getMonth());
+        assertEquals(2024, configData.getEndYear());
+        assertEquals(12, configData.getEndMonth());
+    }
+
     @Test
     void loadConfig_emptyFile_shouldThrowIllegalArgumentException() {
         MultipartFile configFile = new MockMultipartFile("config.txt", "config.txt", "text/plain", new byte[0]);
@@ -0,0 +1,72 @@
+package com.agenda.agendaespacios.service;
+
+import com.agenda.agendaespacios.model.Agenda;
+import com.agenda.agendaespacios.model.ConfigData;
+import com.agenda.agendaespacios.model.FreeSlotPage;
+import com.agenda.agendaespacios.model.FreeSlotQuery;
+import com.agenda.agendaespacios.model.Reservation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FreeSlotSearchTest {
+
+    private final FreeSlotSearch search = new FreeSlotSearch();
+    private Agenda agenda;
+    private FreeSlotQuery query;
+
+    @BeforeEach
+    void createAgenda() {
+        // Yoga leaves two-hour gaps on Mondays in Sala1; Sala2 is open 7-21 every day
+        agenda = new AgendaProcessor().createAgenda(new ConfigData(2024, 7, "ESP", "ENG"), List.of(
+            new Reservation("Yoga", "Sala1", "01/07/2024", "31/07/2024", "L", "10-12")));
+        query = new FreeSlotQuery();
+        query.setDuration(2);
+        query.setDays("L");
+        query.setStartHour(8);
+        query.setEndHour(14);
+        query.setFrom("2024-07-01");
+        query.setTo("2024-07-08");
+    }
+
+    @Test
+    void testTightestFitsComeFirst() {
+        FreeSlotPage page = search.search(agenda, query);
+
+        assertEquals(6, page.getTotal());
+        assertEquals("[Sala1 2024-07-01 8-10, Sala1 2024-07-01 12-14, Sala1 2024-07-08 8-10, Sala1 2024-07-08 12-14, "
+                     + "Sala2 2024-07-01 8-10 (free until 14), Sala2 2024-07-08 8-10 (free until 14)]",
+                     page.getMatches().toString());
+    }
+
+    @Test
+    void testPagesSliceTheRanking() {
+        query.setSize(4);
+        query.setPage(1);
+
+        FreeSlotPage page = search.search(agenda, query);
+
+        assertEquals(6, page.getTotal());
+        assertEquals("[Sala2 2024-07-01 8-10 (free until 14), Sala2 2024-07-08 8-10 (free until 14)]",
+                     page.getMatches().toString());
+    }
+
+    @Test
+    void testRoomAndWeekdayFilters() {
+        query.setRooms(List.of("Sala2", "Missing"));
+        query.setDays("M");
+        query.setDuration(6);
+
+        FreeSlotPage page = search.search(agenda, query);
+
+        assertEquals("[Sala2 2024-07-02 8-14]", page.getMatches().toString());
+        query.setDays("X");
+        assertThrows(IllegalArgumentException.class, () -> search.search(agenda, query));
+        query.setDays("M");
+        query.setDuration(7);
+        assertThrows(IllegalArgumentException.class, () -> search.search(agenda, query));
+    }
+}
@@ -0,0 +1,76 @@
+package com.agenda.agendaespacios.service;
+
+import com.agenda.agendaespacios.model.Reservation;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelReservationParserTest {
+
+    private static byte[] sampleFile(int lines) {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            if (i % 10 == 3) {
+                content.append("Broken line ").append(i).append("\r\n");
+            } else {
+                content.append("Activity").append(i).append(" Sala").append(i % 5)
+                       .append(" 01/07/2024 31/07/2024 LMCJV 8-9\n");
+            }
+        }
+        return content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void parse_smallChunks_shouldMatchSequentialParse() throws IOException {
+        byte[] data = sampleFile(1000);
+        List<Reservation> sequential = new ArrayList<>();
+        ReservationParser sequentialParser = new ReservationParser(sequential::add);
+        sequentialParser.parse(new ByteArrayInputStream(data));
+
+        ParallelReservationParser parser = new ParallelReservationParser(ForkJoinPool.commonPool(), 512);
+        List<Reservation> parallel = parser.parse(data);
+
+        assertEquals(sequential.size(), parallel.size());
+        for (int i = 0; i < sequential.size(); i++) {
+            assertEquals(sequential.get(i).getActivityName(), parallel.get(i).getActivityName());
+        }
+        assertEquals(sequentialParser.getLineCount(), parser.getLineCount());
+        assertEquals(sequentialParser.getInvalidCount(), parser.getInvalidCount());
+        assertEquals(100, parser.getInvalidCount());
+    }
+
+    @Test
+    void chunkBounds_shouldEndOnLineTerminators() {
+        byte[] data = sampleFile(200);
+        int[] bounds = new ParallelReservationParser(ForkJoinPool.commonPool(), 100).chunkBounds(data);
+
+        assertEquals(0, bounds[0]);
+        assertEquals(data.length, bounds[bounds.length - 1]);
+        for (int i = 1; i < bounds.length - 1; i++) {
+            assertEquals('\n', data[bounds[i] - 1]);
+        }
+    }
+
+    @Test
+    void dataLoader_aboveThreshold_shouldUseParallelPath() throws IOException {
+        DataLoader dataLoader = new DataLoader();
+        dataLoader.setParallelThresholdBytes(1);
+        dataLoader.setChunkSizeBytes(256);
+        byte[] data = sampleFile(300);
+
+        List<Reservation> reservations = dataLoader.loadReservations(
+            new MockMultipartFile("peticiones.txt", "peticiones.txt", "text/plain", data));
+
+        assertEquals(270, reservations.size());
+        assertEquals("Activity0", reservations.get(0).getActivityName());
+        assertEquals("Activity299", reservations.get(269).getActivityName());
+    }
+}
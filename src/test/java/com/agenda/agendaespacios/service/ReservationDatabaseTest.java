@@ -0,0 +1,131 @@
+package com.agenda.agendaespacios.service;
+
+import com.agenda.agendaespacios.model.Agenda;
+import com.agenda.agendaespacios.model.ConfigData;
+import com.agenda.agendaespacios.model.Reservation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationDatabaseTest {
+
+    private ReservationDatabase database;
+
+    private DriverManagerDataSource dataSource;
+
+    @BeforeEach
+    void createDatabase() {
+        dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        database = new ReservationDatabase(dataSource, true);
+        database.createSchema();
+    }
+
+    private void ingest(ConfigData config, List<Reservation> reservations) {
+        Agenda agenda = new AgendaProcessor().createAgenda(config, reservations);
+        database.ingest(config, reservations, agenda);
+    }
+
+    @Test
+    void testHolderFollowsAgendaPriority() {
+        ingest(new ConfigData(2024, 7, "ESP", "ENG"), List.of(
+            new Reservation("Yoga", "Sala1", "01/07/2024", "31/07/2024", "L", "10-12"),
+            new Reservation("Pilates", "Sala1", "01/07/2024", "31/07/2024", "L", "11-13")));
+
+        LocalDate monday = LocalDate.of(2024, 7, 1);
+        assertEquals("Yoga", database.findHolder("Sala1", monday, 11));
+        assertEquals("Pilates", database.findHolder("Sala1", monday, 12));
+        assertEquals("Closed", database.findHolder("Sala1", monday, 3));
+        assertNull(database.findHolder("Sala1", monday, 13));
+        assertNull(database.findHolder("Sala1", LocalDate.of(2024, 7, 2), 11));
+    }
+
+    @Test
+    void testFreeSlotsSkipBookedHours() {
+        ingest(new ConfigData(2024, 7, "ESP", "ENG"), List.of(
+            new Reservation("Yoga", "Sala1", "01/07/2024", "31/07/2024", "L", "10-12")));
+
+        List<ReservationDatabase.FreeSlot> free = database.findFreeSlots("Sala1",
+            LocalDate.of(2024, 7, 1), LocalDate.of(2024, 7, 2), 8, 14);
+
+        assertEquals("[2024-07-01 8-10, 2024-07-01 12-14, 2024-07-02 8-14]", free.toString());
+    }
+
+    @Test
+    void testIngestingAgainReplacesThePeriod() {
+        ConfigData july = new ConfigData(2024, 7, "ESP", "ENG");
+        ingest(july, List.of(new Reservation("Yoga", "Sala1", "01/07/2024", "31/07/2024", "L", "10-12")));
+        ingest(july, List.of(new Reservation("Zumba", "Sala1", "01/07/2024", "31/07/2024", "M", "10-12")));
+
+        assertNull(database.findHolder("Sala1", LocalDate.of(2024, 7, 1), 10));
+        assertEquals("Zumba", database.findHolder("Sala1", LocalDate.of(2024, 7, 2), 10));
+    }
+
+    @Test
+    void testBackgroundIngestIsQueryableOnceDone() throws Exception {
+        ConfigData july = new ConfigData(2024, 7, "ESP", "ENG");
+        List<Reservation> reservations = List.of(new Reservation("Yoga", "Sala1", "01/07/2024", "31/07/2024", "L", "10-12"));
+        Agenda agenda = new AgendaProcessor().createAgenda(july, reservations);
+
+        assertTrue(database.ingestInBackground(july, reservations, agenda).get() > 0);
+        assertEquals("Yoga", database.findHolder("Sala1", LocalDate.of(2024, 7, 1), 10));
+    }
+
+    @Test
+    void testDatabaseErrorsAreLoggedNotThrown() {
+        new JdbcTemplate(dataSource).execute("DROP TABLE slot");
+        ConfigData july = new ConfigData(2024, 7, "ESP", "ENG");
+        List<Reservation> reservations = List.of(new Reservation("Yoga", "Sala1", "01/07/2024", "31/07/2024", "L", "10-12"));
+
+        assertEquals(-1, database.ingest(july, reservations, new AgendaProcessor().createAgenda(july, reservations)));
+    }
+
+    @Test
+    void testIngestsThatDoNotFitTheQueueAreDroppedNotThrown() throws Exception {
+        ReservationDatabase bounded = new ReservationDatabase(dataSource, true, 1);
+        ConfigData july = new ConfigData(2024, 7, "ESP", "ENG");
+        List<Reservation> reservations = List.of(new Reservation("Yoga", "Sala1", "01/07/2024", "31/07/2024", "L", "10-12"));
+        Agenda agenda = new AgendaProcessor().createAgenda(july, reservations);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Keeps the writer busy until released, so the next ingest waits in the queue
+        Agenda blocking = new Agenda(july) {
+            @Override
+            public Map<String, RoomSchedule> getRoomSchedules() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return agenda.getRoomSchedules();
+            }
+        };
+        try {
+            Future<Integer> running = bounded.ingestInBackground(july, reservations, blocking);
+            started.await();
+            Future<Integer> queued = bounded.ingestInBackground(july, reservations, agenda);
+            Future<Integer> dropped = bounded.ingestInBackground(july, reservations, agenda);
+
+            assertTrue(dropped.isDone());
+            assertEquals(-1, dropped.get());
+            release.countDown();
+            assertTrue(running.get() > 0);
+            assertTrue(queued.get() > 0);
+            assertEquals("Yoga", database.findHolder("Sala1", LocalDate.of(2024, 7, 1), 10));
+        } finally {
+            release.countDown();
+            bounded.shutdown();
+        }
+    }
+}
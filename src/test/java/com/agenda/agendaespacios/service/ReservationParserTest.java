@@ -0,0 +1,124 @@
+package com.agenda.agendaespacios.service;
+
+import com.agenda.agendaespacios.model.Reservation;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationParserTest {
+
+    private static List<Reservation> parse(String content) throws IOException {
+        List<Reservation> reservations = new ArrayList<>();
+        new ReservationParser(reservations::add)
+            .parse(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+        return reservations;
+    }
+
+    @Test
+    void parse_validLines_shouldDecodeDatesAndTimeRanges() throws IOException {
+        List<Reservation> reservations = parse(
+            "Yoga Sala1 01/07/2024 31/07/2024 LMCJV 10-11_16-18\n" +
+            "Pilates\tSala2   02/07/2024 16/07/2024 S 09-10");
+
+        assertEquals(2, reservations.size());
+        Reservation yoga = reservations.get(0);
+        assertEquals("Yoga", yoga.getActivityName());
+        assertEquals("Sala1", yoga.getRoomName());
+        assertEquals(LocalDate.of(2024, 7, 1), yoga.getStartDate());
+        assertEquals(LocalDate.of(2024, 7, 31), yoga.getEndDate());
+        assertEquals("LMCJV", yoga.getDayPattern());
+        assertEquals("10-11", yoga.getTimeRanges().get(0).toString());
+        assertEquals("16-18", yoga.getTimeRanges().get(1).toString());
+        assertEquals("Sala2", reservations.get(1).getRoomName());
+    }
+
+    @Test
+    void parse_repeatedNames_shouldShareDictionaryIds() throws IOException {
+        List<Reservation> reservations = parse(
+            "Yoga Sala1 01/07/2024 31/07/2024 LMCJV 10-11\n" +
+            "Closed Sala1 01/07/2024 31/07/2024 G 0-24\n" +
+            "Yoga Sala1 01/08/2024 31/08/2024 LMCJV 10-11");
+
+        Reservation first = reservations.get(0);
+        Reservation last = reservations.get(2);
+        assertEquals(first.getActivityId(), last.getActivityId());
+        assertEquals(first.getRoomId(), reservations.get(1).getRoomId());
+        assertSame(first.getActivityName(), last.getActivityName());
+        assertFalse(first.isClosed());
+        assertTrue(reservations.get(1).isClosed());
+    }
+
+    @Test
+    void parse_crlfAndBlankLines_shouldBeCountedAsSingleLines() throws IOException {
+        List<Reservation> reservations = new ArrayList<>();
+        ReservationParser parser = new ReservationParser(reservations::add);
+        String content = "Yoga Sala1 01/07/2024 31/07/2024 L 10-11\r\n" +
+                         "\r\n" +
+                         "   \r\n" +
+                         "Pilates Sala2 01/07/2024 31/07/2024 M 9-10\r\n";
+
+        parser.parse(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, reservations.size());
+        assertEquals(4, parser.getLineCount());
+        assertEquals(0, parser.getInvalidCount());
+    }
+
+    @Test
+    void parse_invalidLines_shouldBeSkippedAndCounted() throws IOException {
+        List<Reservation> reservations = new ArrayList<>();
+        ReservationParser parser = new ReservationParser(reservations::add);
+        String content = "TooFew Sala1 01/07/2024 31/07/2024 L\n" +
+                         "BadDate Sala1 2024/07/01 31/07/2024 L 10-11\n" +
+                         "BadDays Sala1 01/07/2024 31/07/2024 XYZ 10-11\n" +
+                         "BadHours Sala1 01/07/2024 31/07/2024 L 12-10\n" +
+                         "Yoga Sala1 01/07/2024 31/07/2024 L 10-11";
+
+        parser.parse(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, reservations.size());
+        assertEquals("Yoga", reservations.get(0).getActivityName());
+        assertEquals(4, parser.getInvalidCount());
+        assertEquals(1, parser.getValidCount());
+    }
+
+    @Test
+    void parse_lineSpanningBufferBoundary_shouldBeReassembled() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            content.append("Activity").append(i).append(" Sala").append(i % 7)
+                   .append(" 01/07/2024 31/07/2024 LMCJVSG 8-9_10-11\n");
+        }
+
+        List<Reservation> reservations = parse(content.toString());
+
+        assertEquals(5000, reservations.size());
+        assertEquals("Activity4999", reservations.get(4999).getActivityName());
+    }
+
+    @Test
+    void parse_byteRange_shouldUseLineOffset() {
+        byte[] data = "Yoga Sala1 01/07/2024 31/07/2024 L 10-11\nBroken line\n".getBytes(StandardCharsets.UTF_8);
+        ReservationParser parser = new ReservationParser(r -> { }, 100);
+
+        parser.parse(data, 0, data.length);
+
+        assertEquals(102, parser.getLineCount());
+        assertEquals(1, parser.getInvalidCount());
+    }
+
+    @Test
+    void parseDate_shouldMatchFormatterForOutOfRangeDays() throws IOException {
+        // dd/MM/yyyy with the default resolver clamps the day to the end of the month
+        List<Reservation> reservations = parse("Clase Aula 31/02/2024 31/03/2024 L 10-11");
+
+        assertEquals(LocalDate.of(2024, 2, 29), reservations.get(0).getStartDate());
+    }
+}
@@ -0,0 +1,67 @@
+package com.agenda.agendaespacios.tools;
+
+import com.agenda.agendaespacios.model.ConfigData;
+import com.agenda.agendaespacios.model.Reservation;
+import com.agenda.agendaespacios.service.DataLoader;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkloadGeneratorTest {
+
+    private static String reservations(WorkloadGenerator.Settings settings) throws IOException {
+        StringWriter out = new StringWriter();
+        new WorkloadGenerator(settings).writeReservations(out);
+        return out.toString();
+    }
+
+    @Test
+    void sameSeed_shouldProduceIdenticalOutput() throws IOException {
+        WorkloadGenerator.Settings settings = new WorkloadGenerator.Settings()
+            .setSeed(7L).setReservations(500).setRooms(10).setMalformedRatio(0.1);
+
+        assertEquals(reservations(settings), reservations(settings));
+        assertNotEquals(reservations(settings), reservations(settings.setSeed(8L)));
+    }
+
+    @Test
+    void generatedFiles_shouldBeAcceptedByDataLoader() throws IOException {
+        WorkloadGenerator.Settings settings = new WorkloadGenerator.Settings()
+            .setReservations(2000).setRooms(20).setStartMonth(YearMonth.of(2024, 11)).setMonths(3)
+            .setMaxTimeRanges(3).setClosedRatio(0.2).setMalformedRatio(0.0);
+        WorkloadGenerator generator = new WorkloadGenerator(settings);
+        StringWriter config = new StringWriter();
+        generator.writeConfig(config);
+        DataLoader dataLoader = new DataLoader();
+
+        ConfigData configData = dataLoader.loadConfig(new MockMultipartFile("config.txt",
+            config.toString().getBytes(StandardCharsets.UTF_8)));
+        List<Reservation> loaded = dataLoader.loadReservations(new MockMultipartFile("peticiones.txt",
+            reservations(settings).getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(YearMonth.of(2025, 1), configData.getEndPeriod());
+        assertEquals(2000, loaded.size());
+        assertTrue(loaded.stream().anyMatch(r -> "Closed".equals(r.getActivityName())));
+        assertTrue(loaded.stream().anyMatch(r -> r.getTimeRanges().size() > 1));
+        assertTrue(loaded.stream().allMatch(r -> !r.getEndDate().isAfter(YearMonth.of(2025, 1).atEndOfMonth())));
+    }
+
+    @Test
+    void malformedRatio_shouldControlRejectedLines() throws IOException {
+        WorkloadGenerator.Settings settings = new WorkloadGenerator.Settings()
+            .setReservations(1000).setMalformedRatio(0.25);
+
+        List<Reservation> loaded = new DataLoader().loadReservations(new MockMultipartFile("peticiones.txt",
+            reservations(settings).getBytes(StandardCharsets.UTF_8)));
+
+        int rejected = 1000 - loaded.size();
+        assertTrue(rejected > 150 && rejected < 350, "rejected " + rejected);
+    }
+}